@@ -0,0 +1,92 @@
+package app.weehong.financeapi.benchmarks;
+
+import app.weehong.financeapi.utils.InstallmentCalculator;
+import app.weehong.financeapi.utils.Money;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the installment arithmetic on {@link BigDecimal} with the same arithmetic on
+ * {@link Money}: the price per month of each installment and the outstanding amount summed over
+ * all of them, as the batch create does. Run with {@code ./gradlew jmh}; the gc profiler reports
+ * the allocation per operation next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+  @Param({"5000"})
+  private int installments;
+
+  private final InstallmentCalculator installmentCalculator = new InstallmentCalculator();
+
+  private BigDecimal[] totalAmounts;
+
+  private Money[] totalMoneys;
+
+  private int[] tenures;
+
+  private int[] leftoverTenures;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    totalAmounts = new BigDecimal[installments];
+    totalMoneys = new Money[installments];
+    tenures = new int[installments];
+    leftoverTenures = new int[installments];
+
+    for (int index = 0; index < installments; index++) {
+      long cents = 10_000 + random.nextInt(1_000_000);
+      totalAmounts[index] = BigDecimal.valueOf(cents, 2);
+      totalMoneys[index] = Money.ofCents(cents);
+      tenures[index] = 3 + random.nextInt(34);
+      leftoverTenures[index] = random.nextInt(tenures[index] + 1);
+    }
+  }
+
+  @Benchmark
+  public BigDecimal bigDecimal() {
+    BigDecimal outstandingAmount = BigDecimal.ZERO;
+
+    for (int index = 0; index < installments; index++) {
+      BigDecimal pricePerMonth = totalAmounts[index]
+          .divide(BigDecimal.valueOf(tenures[index]), 2, RoundingMode.HALF_UP);
+      outstandingAmount = outstandingAmount.add(
+          pricePerMonth.multiply(BigDecimal.valueOf(leftoverTenures[index])));
+    }
+
+    return outstandingAmount;
+  }
+
+  @Benchmark
+  public BigDecimal money() {
+    Money outstandingAmount = Money.ZERO;
+
+    for (int index = 0; index < installments; index++) {
+      Money pricePerMonth = InstallmentCalculator.calculatePricePerMonth(totalMoneys[index],
+          tenures[index]);
+      outstandingAmount = outstandingAmount.plus(
+          installmentCalculator.calculateOutstandingAmount(pricePerMonth, leftoverTenures[index]));
+    }
+
+    return outstandingAmount.toBigDecimal();
+  }
+}
@@ -0,0 +1,24 @@
+package app.weehong.financeapi.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "amount.write")
+public class AmountWriteProperties {
+
+  /**
+   * Number of locks the amounts are spread over. Writes to amounts that share a lock wait for each
+   * other on this instance, so it only needs to be large compared to the concurrent writers.
+   */
+  private int stripes = 64;
+
+  /**
+   * Number of times a write is attempted before a version conflict is returned to the client.
+   */
+  private int maxAttempts = 3;
+}
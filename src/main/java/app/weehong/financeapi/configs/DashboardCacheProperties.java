@@ -0,0 +1,26 @@
+package app.weehong.financeapi.configs;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dashboard.cache")
+public class DashboardCacheProperties {
+
+  /**
+   * Maximum number of entries kept by each cache, i.e. users for the total price per month and
+   * amounts for the leftovers.
+   */
+  private long maximumSize = 10_000;
+
+  /**
+   * Time after which an entry is reloaded even if no write evicted it. Writes from outside this
+   * instance, e.g. another replica, are only picked up after it.
+   */
+  private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
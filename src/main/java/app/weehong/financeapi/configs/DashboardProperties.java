@@ -0,0 +1,25 @@
+package app.weehong.financeapi.configs;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "dashboard")
+public class DashboardProperties {
+
+  /**
+   * Number of dashboard sections loaded concurrently across all requests. It is capped at half of
+   * the Hikari pool, since every running section holds a connection.
+   */
+  private int parallelism = 4;
+
+  /**
+   * Time a request waits for all of its sections before it gives up with a 503.
+   */
+  private Duration timeout = Duration.ofSeconds(5);
+}
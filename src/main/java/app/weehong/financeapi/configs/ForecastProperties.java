@@ -0,0 +1,30 @@
+package app.weehong.financeapi.configs;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "forecast")
+public class ForecastProperties {
+
+  /**
+   * Number of months forecast, starting with the current one.
+   */
+  private int months = 36;
+
+  /**
+   * Maximum number of users whose forecast is cached.
+   */
+  private long maximumSize = 10_000;
+
+  /**
+   * Time after which a forecast is rebuilt from scratch even if it was kept up to date
+   * incrementally. Writes from outside this instance are only picked up after it.
+   */
+  private Duration expireAfterWrite = Duration.ofHours(1);
+}
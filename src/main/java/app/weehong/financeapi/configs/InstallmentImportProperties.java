@@ -0,0 +1,19 @@
+package app.weehong.financeapi.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "installment.import")
+public class InstallmentImportProperties {
+
+  /**
+   * Number of CSV records validated and created together. Only one chunk is held in memory; the
+   * next one is read after the failures of the previous one have been written to the client.
+   */
+  private int chunkSize = 100;
+}
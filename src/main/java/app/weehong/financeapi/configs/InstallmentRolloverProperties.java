@@ -0,0 +1,25 @@
+package app.weehong.financeapi.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "installment.rollover")
+public class InstallmentRolloverProperties {
+
+  /**
+   * Soft limit of cards updated per transaction. A chunk is only cut between two amounts, so an
+   * amount with more cards than this still goes into a single chunk.
+   */
+  private int chunkSize = 500;
+
+  /**
+   * Number of chunks rolled over concurrently. It is capped at half of the Hikari pool, and the
+   * run holds one more connection than this for the cursor over the due cards.
+   */
+  private int parallelism = 4;
+}
@@ -0,0 +1,72 @@
+package app.weehong.financeapi.configs;
+
+import app.weehong.financeapi.utils.ReadYourWrites;
+import app.weehong.financeapi.utils.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the auto-configured pool with a pool on the primary and a pool on the replica when a
+ * replica URL is set. The data source the application uses routes between the two with
+ * {@link ReplicaRoutingDataSource}; Flyway and the scheduled jobs run outside read-only
+ * transactions, so they only ever see the primary.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnExpression("!'${spring.datasource.replica.url:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+  @Bean
+  @ConfigurationProperties(prefix = "spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+    HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  @Bean
+  @ConfigurationProperties(prefix = "spring.datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(DataSourceProperties dataSourceProperties,
+      ReplicaDataSourceProperties replicaProperties) {
+    HikariDataSource dataSource = DataSourceBuilder.create()
+        .type(HikariDataSource.class)
+        .driverClassName(dataSourceProperties.determineDriverClassName())
+        .url(replicaProperties.getUrl())
+        .username(replicaProperties.getUsername() != null
+            ? replicaProperties.getUsername()
+            : dataSourceProperties.determineUsername())
+        .password(replicaProperties.getPassword() != null
+            ? replicaProperties.getPassword()
+            : dataSourceProperties.determinePassword())
+        .build();
+    dataSource.setPoolName("replica");
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      ReadYourWrites readYourWrites) {
+    ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primaryDataSource,
+        replicaDataSource, readYourWrites);
+    routingDataSource.afterPropertiesSet();
+
+    log.info("Routing read-only transactions to the replica");
+
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+}
@@ -0,0 +1,37 @@
+package app.weehong.financeapi.configs;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "spring.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+  /**
+   * JDBC URL of the read replica. Read-only transactions stay on the primary when it is blank.
+   */
+  private String url;
+
+  /**
+   * User of the read replica, the user of the primary when not set.
+   */
+  private String username;
+
+  /**
+   * Password of the read replica, the password of the primary when not set.
+   */
+  private String password;
+
+  /**
+   * How long the reads of a user keep going to the primary after one of their writes finishes. It
+   * only needs to be longer than the replication lag. The window is kept by the instance that
+   * served the write, so with several instances it only covers reads that land on the same one;
+   * a read served by another instance right after the write may not see it.
+   */
+  private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
@@ -0,0 +1,20 @@
+package app.weehong.financeapi.configs;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "scheduler.lock")
+public class SchedulerLockProperties {
+
+  /**
+   * How long a lease stays valid without being renewed. It has to be well above the clock skew
+   * between the replicas and the duration of a single rollover chunk.
+   */
+  private Duration leaseDuration = Duration.ofMinutes(1);
+}
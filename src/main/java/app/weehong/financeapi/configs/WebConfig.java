@@ -0,0 +1,32 @@
+package app.weehong.financeapi.configs;
+
+import app.weehong.financeapi.interceptors.DataVersionETagInterceptor;
+import app.weehong.financeapi.interceptors.ReadYourWritesInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+  private final DataVersionETagInterceptor dataVersionETagInterceptor;
+
+  private final ReadYourWritesInterceptor readYourWritesInterceptor;
+
+  @Autowired
+  public WebConfig(DataVersionETagInterceptor dataVersionETagInterceptor,
+      ReadYourWritesInterceptor readYourWritesInterceptor) {
+    this.dataVersionETagInterceptor = dataVersionETagInterceptor;
+    this.readYourWritesInterceptor = readYourWritesInterceptor;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(readYourWritesInterceptor)
+        .addPathPatterns("/api/**");
+    registry.addInterceptor(dataVersionETagInterceptor)
+        .addPathPatterns("/api/v1/banks/**", "/api/v1/amounts/**", "/api/v1/cards/**",
+            "/api/v1/installments/**", "/api/v1/dashboard", "/api/v1/forecast");
+  }
+}
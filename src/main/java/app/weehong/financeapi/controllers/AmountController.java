@@ -2,6 +2,7 @@ package app.weehong.financeapi.controllers;
 
 import app.weehong.financeapi.dtos.request.AmountRequestDto;
 import app.weehong.financeapi.dtos.response.AmountResponseDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
 import app.weehong.financeapi.services.AmountService;
 import app.weehong.financeapi.utils.ResponseUtil;
 import jakarta.validation.Valid;
@@ -12,8 +13,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/amounts")
@@ -27,9 +26,12 @@ public class AmountController {
     }
 
     @GetMapping
-    public ResponseEntity getAmounts(Authentication authentication) {
+    public ResponseEntity getAmounts(Authentication authentication,
+                                     @RequestParam(required = false) String cursor,
+                                     @RequestParam(required = false) Integer limit) {
         log.info("getAmounts() function called");
-        List<AmountResponseDto> amounts = amountService.all(authentication.getName());
+        CursorPageDto<AmountResponseDto> amounts = amountService.all(authentication.getName(),
+                cursor, limit);
         return ResponseUtil.ResponseMapping(amounts, "Record has fetched successfully", HttpStatus.OK);
     }
 
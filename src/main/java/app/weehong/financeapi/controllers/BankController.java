@@ -2,6 +2,7 @@ package app.weehong.financeapi.controllers;
 
 import app.weehong.financeapi.dtos.request.BankRequestDto;
 import app.weehong.financeapi.dtos.response.BankResponseDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
 import app.weehong.financeapi.services.BankService;
 import app.weehong.financeapi.utils.ResponseUtil;
 import jakarta.validation.Valid;
@@ -12,8 +13,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/banks")
@@ -28,9 +27,12 @@ public class BankController {
 
     @GetMapping
     public ResponseEntity getBanks(
-            Authentication authentication) {
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         log.info("getBanks() function called");
-        List<BankResponseDto> banks = bankService.all(authentication.getName());
+        CursorPageDto<BankResponseDto> banks = bankService.all(authentication.getName(), cursor,
+                limit);
         return ResponseUtil.ResponseMapping(banks, "Record has fetched successfully", HttpStatus.OK);
     }
 
@@ -2,10 +2,10 @@ package app.weehong.financeapi.controllers;
 
 import app.weehong.financeapi.dtos.request.CardRequestDto;
 import app.weehong.financeapi.dtos.response.CardResponseDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
 import app.weehong.financeapi.services.CardService;
 import app.weehong.financeapi.utils.ResponseUtil;
 import jakarta.validation.Valid;
-import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -19,6 +19,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @Slf4j
@@ -35,9 +36,12 @@ public class CardController {
 
   @GetMapping
   public ResponseEntity getCards(
-      Authentication authentication) {
+      Authentication authentication,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit) {
     log.info("getCards() function called");
-    List<CardResponseDto> cards = cardService.all(authentication.getName());
+    CursorPageDto<CardResponseDto> cards = cardService.all(authentication.getName(), cursor,
+        limit);
     return ResponseUtil.ResponseMapping(cards, "Record has fetched successfully", HttpStatus.OK);
   }
 
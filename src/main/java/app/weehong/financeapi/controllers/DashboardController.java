@@ -0,0 +1,51 @@
+package app.weehong.financeapi.controllers;
+
+import app.weehong.financeapi.dtos.response.DashboardResponseDto;
+import app.weehong.financeapi.services.DashboardService;
+import app.weehong.financeapi.utils.ResponseUtil;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/dashboard")
+public class DashboardController {
+
+  private static final String SERVER_TIMING = "Server-Timing";
+
+  private final DashboardService dashboardService;
+
+  @Autowired
+  public DashboardController(DashboardService dashboardService) {
+    this.dashboardService = dashboardService;
+  }
+
+  @GetMapping
+  public ResponseEntity getDashboard(Authentication authentication) {
+    log.info("getDashboard() function called");
+    DashboardResponseDto dashboard = dashboardService.dashboard(authentication.getName());
+    ResponseEntity response = ResponseUtil.ResponseMapping(dashboard,
+        "Record has fetched successfully", HttpStatus.OK);
+
+    return ResponseEntity.status(response.getStatusCode())
+        .header(SERVER_TIMING, serverTiming(dashboard))
+        .body(response.getBody());
+  }
+
+  private String serverTiming(DashboardResponseDto dashboard) {
+    return dashboard.getTimings()
+        .entrySet()
+        .stream()
+        .map(timing -> timing.getKey() + ";dur=" + String.format(Locale.ROOT, "%.1f",
+            timing.getValue().toNanos() / 1_000_000.0))
+        .collect(Collectors.joining(", "));
+  }
+}
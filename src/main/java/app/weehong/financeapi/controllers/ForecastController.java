@@ -0,0 +1,33 @@
+package app.weehong.financeapi.controllers;
+
+import app.weehong.financeapi.dtos.response.ForecastResponseDto;
+import app.weehong.financeapi.services.ForecastService;
+import app.weehong.financeapi.utils.ResponseUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/forecast")
+public class ForecastController {
+
+  private final ForecastService forecastService;
+
+  @Autowired
+  public ForecastController(ForecastService forecastService) {
+    this.forecastService = forecastService;
+  }
+
+  @GetMapping
+  public ResponseEntity getForecast(Authentication authentication) {
+    log.info("getForecast() function called");
+    ForecastResponseDto forecast = forecastService.forecast(authentication.getName());
+    return ResponseUtil.ResponseMapping(forecast, "Record has fetched successfully", HttpStatus.OK);
+  }
+}
@@ -1,13 +1,33 @@
 package app.weehong.financeapi.controllers;
 
+import app.weehong.financeapi.dtos.request.InstallmentBatchRequestDto;
 import app.weehong.financeapi.dtos.request.InstallmentRequestDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
+import app.weehong.financeapi.dtos.response.InstallmentBatchResultDto;
+import app.weehong.financeapi.dtos.response.InstallmentImportSummaryDto;
 import app.weehong.financeapi.dtos.response.InstallmentResponseDto;
+import app.weehong.financeapi.mappers.InstallmentCsvMapper;
+import app.weehong.financeapi.services.InstallmentExportService;
+import app.weehong.financeapi.services.InstallmentExportService.Format;
+import app.weehong.financeapi.services.InstallmentImportService;
 import app.weehong.financeapi.services.InstallmentService;
+import app.weehong.financeapi.utils.CsvReader;
+import app.weehong.financeapi.utils.CsvReader.MalformedCsvException;
+import app.weehong.financeapi.utils.NdjsonWriter;
 import app.weehong.financeapi.utils.ResponseUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,7 +37,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Slf4j
 @RestController
@@ -26,16 +50,31 @@ public class InstallmentController {
 
   private final InstallmentService<InstallmentResponseDto, InstallmentRequestDto> installmentService;
 
+  private final InstallmentImportService installmentImportService;
 
+  private final InstallmentExportService installmentExportService;
+
+  private final ObjectMapper objectMapper;
+
+  @Autowired
   public InstallmentController(
-      InstallmentService<InstallmentResponseDto, InstallmentRequestDto> installmentService) {
+      InstallmentService<InstallmentResponseDto, InstallmentRequestDto> installmentService,
+      InstallmentImportService installmentImportService,
+      InstallmentExportService installmentExportService,
+      ObjectMapper objectMapper) {
     this.installmentService = installmentService;
+    this.installmentImportService = installmentImportService;
+    this.installmentExportService = installmentExportService;
+    this.objectMapper = objectMapper;
   }
 
   @GetMapping
-  public ResponseEntity getInstallments(Authentication authentication) {
+  public ResponseEntity getInstallments(Authentication authentication,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit) {
     log.info("getInstallments() function called");
-    List<InstallmentResponseDto> amounts = installmentService.all(authentication.getName());
+    CursorPageDto<InstallmentResponseDto> amounts = installmentService.all(
+        authentication.getName(), cursor, limit);
     return ResponseUtil.ResponseMapping(amounts, "Record has fetched successfully", HttpStatus.OK);
   }
 
@@ -53,6 +92,33 @@ public class InstallmentController {
     return ResponseUtil.ResponseMapping(amounts, "Record has fetched successfully", HttpStatus.OK);
   }
 
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportInstallments(Authentication authentication,
+      @RequestParam(defaultValue = "ndjson") String format) {
+    log.info("exportInstallments(" + format + ") function called");
+    Format exportFormat;
+    try {
+      exportFormat = Format.valueOf(format.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          "Format must be either ndjson or csv.");
+    }
+
+    String userId = authentication.getName();
+    StreamingResponseBody body = outputStream ->
+        installmentExportService.export(userId, exportFormat, outputStream);
+
+    return ResponseEntity.ok()
+        .contentType(exportFormat == Format.CSV
+            ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+            : MediaType.APPLICATION_NDJSON)
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename("installments." + format.toLowerCase())
+            .build()
+            .toString())
+        .body(body);
+  }
+
   @PostMapping
   public ResponseEntity createInstallment(Authentication authentication,
       @Valid @RequestBody InstallmentRequestDto amountRequestDto) {
@@ -61,6 +127,65 @@ public class InstallmentController {
     return ResponseUtil.ResponseMapping(amount, "Successfully created amount", HttpStatus.CREATED);
   }
 
+  @PostMapping("/batch")
+  public ResponseEntity createInstallments(Authentication authentication,
+      @Valid @RequestBody InstallmentBatchRequestDto installmentBatchRequestDto) {
+    log.info("createInstallments(" + installmentBatchRequestDto.getInstallments().size()
+        + ") function called");
+    List<InstallmentBatchResultDto> results = installmentService.createAll(
+        authentication.getName(), installmentBatchRequestDto.getInstallments());
+    boolean isAllCreated = results.stream().allMatch(InstallmentBatchResultDto::isSuccess);
+    return ResponseUtil.ResponseMapping(results,
+        isAllCreated ? "Successfully created installments" : "Some installments were not created",
+        isAllCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+  }
+
+  /**
+   * Streams back one NDJSON line per failed record while the file is imported, followed by a
+   * summary line. The header is checked before the response starts, so a file with the wrong
+   * columns is still rejected with a 400.
+   */
+  @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  public ResponseEntity<StreamingResponseBody> importInstallments(Authentication authentication,
+      @RequestParam("file") MultipartFile file) throws IOException {
+    log.info("importInstallments(" + file.getOriginalFilename() + ") function called");
+    String userId = authentication.getName();
+    CsvReader csvReader = new CsvReader(
+        new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8));
+
+    InstallmentCsvMapper csvMapper;
+    try {
+      csvMapper = InstallmentCsvMapper.fromHeader(csvReader.next());
+    } catch (MalformedCsvException e) {
+      csvReader.close();
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    } catch (IOException | RuntimeException e) {
+      csvReader.close();
+      throw e;
+    }
+
+    StreamingResponseBody body = outputStream -> {
+      try (csvReader; NdjsonWriter writer = new NdjsonWriter(objectMapper, outputStream)) {
+        InstallmentImportSummaryDto summary = installmentImportService.importCsv(userId,
+            csvReader, csvMapper, failures -> {
+              try {
+                for (InstallmentBatchResultDto failure : failures) {
+                  writer.write(failure);
+                }
+                writer.flush();
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+        writer.write(summary);
+      }
+    };
+
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(body);
+  }
+
   @PutMapping("/{id}")
   public ResponseEntity updateInstallment(Authentication authentication, @PathVariable Long id,
       @Valid @RequestBody InstallmentRequestDto amountRequestDto) {
@@ -0,0 +1,17 @@
+package app.weehong.financeapi.dtos.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class InstallmentBatchRequestDto {
+
+  @NotEmpty(message = "Installments are required")
+  @Size(max = 100, message = "At most 100 installments can be created at once")
+  private List<@Valid InstallmentRequestDto> installments;
+}
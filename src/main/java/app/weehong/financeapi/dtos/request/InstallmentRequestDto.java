@@ -5,6 +5,7 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import lombok.Getter;
@@ -24,6 +25,7 @@ public class InstallmentRequestDto {
   private BigDecimal totalAmount;
 
   @NotNull(message = "Tenure is required")
+  @Positive(message = "Tenure must be greater than 0")
   private Integer tenure;
 
   @NotNull(message = "Start date is required")
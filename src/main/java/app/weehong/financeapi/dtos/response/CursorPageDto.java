@@ -0,0 +1,19 @@
+package app.weehong.financeapi.dtos.response;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class CursorPageDto<T> {
+
+  private List<T> items;
+
+  /**
+   * Token of the page after this one, or null when this is the last page.
+   */
+  private String nextCursor;
+}
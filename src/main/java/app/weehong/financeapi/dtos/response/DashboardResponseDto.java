@@ -0,0 +1,38 @@
+package app.weehong.financeapi.dtos.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardResponseDto {
+
+  private List<AmountResponseDto> amounts;
+
+  private List<BankResponseDto> banks;
+
+  private List<CardResponseDto> cards;
+
+  @JsonProperty("total_price_per_month")
+  private List<InstallmentResponseDto> totalPricePerMonth;
+
+  /**
+   * Tokens of the next page of the sections that have more than the first page, keyed by section.
+   */
+  @JsonProperty("next_cursors")
+  private Map<String, String> nextCursors;
+
+  /**
+   * Time spent loading each section, keyed by section. It is sent in the Server-Timing header
+   * rather than in the body.
+   */
+  @JsonIgnore
+  private Map<String, Duration> timings;
+}
@@ -0,0 +1,26 @@
+package app.weehong.financeapi.dtos.response;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * The amount owed in each forecast month, in total and per card, bank and amount. Every list of
+ * amounts is aligned with the months.
+ */
+@Getter
+@Builder
+public class ForecastResponseDto {
+
+  private List<YearMonth> months;
+
+  private List<BigDecimal> total;
+
+  private List<ForecastSeriesDto> cards;
+
+  private List<ForecastSeriesDto> banks;
+
+  private List<ForecastSeriesDto> amounts;
+}
@@ -0,0 +1,17 @@
+package app.weehong.financeapi.dtos.response;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ForecastSeriesDto {
+
+  private Long id;
+
+  private String name;
+
+  private List<BigDecimal> amounts;
+}
@@ -12,7 +12,7 @@ import lombok.Setter;
 @Setter
 @Builder
 @JsonInclude(JsonInclude.Include.NON_NULL)
-@JsonPropertyOrder({"status", "message", "data", "error"})
+@JsonPropertyOrder({"status", "message", "data", "next_cursor", "error"})
 public class GenericResponseDto<T> {
 
   @JsonProperty("status")
@@ -23,4 +23,7 @@ public class GenericResponseDto<T> {
   private T data;
 
   private Map<String, String> errors;
+
+  @JsonProperty("next_cursor")
+  private String nextCursor;
 }
@@ -0,0 +1,25 @@
+package app.weehong.financeapi.dtos.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"index", "status", "message", "data"})
+public class InstallmentBatchResultDto {
+
+  private int index;
+
+  @JsonProperty("status")
+  private boolean isSuccess;
+
+  private String message;
+
+  private InstallmentResponseDto data;
+}
@@ -0,0 +1,49 @@
+package app.weehong.financeapi.dtos.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@JsonPropertyOrder({"id", "name", "total_amount", "tenure", "leftover_tenure", "price_per_month",
+    "start_date", "end_date", "is_active", "card_id", "card_name", "created_at"})
+public class InstallmentExportDto {
+
+  private Long id;
+
+  private String name;
+
+  @JsonProperty("total_amount")
+  private BigDecimal totalAmount;
+
+  private Integer tenure;
+
+  @JsonProperty("leftover_tenure")
+  private Integer leftoverTenure;
+
+  @JsonProperty("price_per_month")
+  private BigDecimal pricePerMonth;
+
+  @JsonProperty("start_date")
+  private LocalDate startDate;
+
+  @JsonProperty("end_date")
+  private LocalDate endDate;
+
+  @JsonProperty("is_active")
+  private Boolean isActive;
+
+  @JsonProperty("card_id")
+  private Long cardId;
+
+  @JsonProperty("card_name")
+  private String cardName;
+
+  @JsonProperty("created_at")
+  private LocalDateTime createdAt;
+}
@@ -0,0 +1,19 @@
+package app.weehong.financeapi.dtos.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class InstallmentImportSummaryDto {
+
+  private long imported;
+
+  private long failed;
+
+  private String message;
+}
@@ -17,7 +17,9 @@ import java.util.Set;
 public class Amount {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "amounts_id_seq")
+    @SequenceGenerator(name = "amounts_id_seq", sequenceName = "amounts_id_seq",
+            allocationSize = 50)
     private Long id;
 
     private String name;
@@ -25,9 +27,18 @@ public class Amount {
     @Column(name = "amount")
     private BigDecimal initialAmount;
 
-    @Column(name = "leftover")
+    /**
+     * Only written on insert; afterwards it is maintained by atomic updates in
+     * {@link app.weehong.financeapi.repositories.AmountRepository}, so saving a stale entity
+     * cannot overwrite a concurrent change.
+     */
+    @Column(name = "leftover", updatable = false)
     private BigDecimal leftoverAmount;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @CreationTimestamp
     private LocalDateTime createdAt;
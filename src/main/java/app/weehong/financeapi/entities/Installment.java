@@ -9,7 +9,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -26,7 +28,9 @@ import org.springframework.format.annotation.DateTimeFormat;
 public class Installment {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "installments_id_seq")
+  @SequenceGenerator(name = "installments_id_seq", sequenceName = "installments_id_seq",
+        allocationSize = 50)
   private Long id;
 
   @Column(unique = true)
@@ -55,6 +59,10 @@ public class Installment {
   @Column(name = "is_active")
   private boolean isActive;
 
+  @Version
+  @Column(name = "version", nullable = false)
+  private long version;
+
   @Column(name = "created_at", nullable = false, updatable = false)
   @CreationTimestamp
   private LocalDateTime createdAt;
@@ -0,0 +1,23 @@
+package app.weehong.financeapi.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "rollover_watermarks")
+public class RolloverWatermark {
+
+  @Id
+  @Column(name = "card_id")
+  private Long cardId;
+
+  @Column(name = "last_statement_date", nullable = false)
+  private LocalDate lastStatementDate;
+}
@@ -0,0 +1,27 @@
+package app.weehong.financeapi.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "scheduler_locks")
+public class SchedulerLock {
+
+  @Id
+  private String name;
+
+  private String owner;
+
+  @Column(name = "fencing_token", nullable = false)
+  private long fencingToken;
+
+  @Column(name = "locked_until", nullable = false)
+  private LocalDateTime lockedUntil;
+}
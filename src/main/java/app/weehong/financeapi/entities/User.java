@@ -35,6 +35,13 @@ public class User {
   @UpdateTimestamp
   private LocalDateTime updatedAt;
 
+  /**
+   * Bumped by the database whenever a bank, amount, card or installment of the user is written,
+   * whatever the write path. It versions everything the user can read.
+   */
+  @Column(name = "data_version", insertable = false, updatable = false)
+  private Long dataVersion;
+
   @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
   private Set<Bank> banks;
 }
@@ -21,6 +21,6 @@ public class ResourceNotFoundExceptionHandler {
         .isSuccess(false)
         .message(ex.getReason())
         .build();
-    return new ResponseEntity<>(genericResponseDto, null, 404);
+    return new ResponseEntity<>(genericResponseDto, null, ex.getStatusCode());
   }
 }
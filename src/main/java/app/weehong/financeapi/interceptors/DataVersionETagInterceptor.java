@@ -0,0 +1,73 @@
+package app.weehong.financeapi.interceptors;
+
+import app.weehong.financeapi.repositories.UserRepository;
+import app.weehong.financeapi.utils.StatementDateCalculator;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.security.Principal;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Answers conditional GETs from the data version of the user before the handler runs, so a
+ * request whose If-None-Match still matches gets a 304 without loading, mapping or serializing
+ * anything. The tag also carries today's date because the leftover tenures are derived from it.
+ *
+ * <p>The version is read before the handler loads the data, so a response can only carry a tag
+ * older than its body, which costs the client one more full response but never a stale one.
+ */
+@Slf4j
+@Component
+public class DataVersionETagInterceptor implements HandlerInterceptor {
+
+  private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate()
+      .getHeaderValue();
+
+  private final UserRepository userRepository;
+
+  @Autowired
+  public DataVersionETagInterceptor(UserRepository userRepository) {
+    this.userRepository = userRepository;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    if (!HttpMethod.GET.matches(request.getMethod())
+        && !HttpMethod.HEAD.matches(request.getMethod())) {
+      return true;
+    }
+
+    Principal principal = request.getUserPrincipal();
+    if (principal == null) {
+      return true;
+    }
+
+    Optional<Long> dataVersion = userRepository.findDataVersionById(principal.getName());
+    if (dataVersion.isEmpty()) {
+      return true;
+    }
+
+    response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+
+    String etag = etag(dataVersion.get());
+    if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+      log.debug("DataVersionETagInterceptor - preHandle(): {} not modified since {}",
+          request.getRequestURI(), etag);
+      return false;
+    }
+
+    return true;
+  }
+
+  static String etag(long dataVersion) {
+    return "\"" + dataVersion + "-" + StatementDateCalculator.today() + "\"";
+  }
+}
@@ -0,0 +1,59 @@
+package app.weehong.financeapi.interceptors;
+
+import app.weehong.financeapi.utils.ReadYourWrites;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.security.Principal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Marks the user of a write request as writing from before the handler runs until the response
+ * has completed, which then opens their read-your-writes window. The mark is kept in a request
+ * attribute so the second dispatch of an asynchronous request doesn't count the write twice.
+ */
+@Component
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+  private static final String WRITING_USER = ReadYourWritesInterceptor.class.getName()
+      + ".WRITING_USER";
+
+  private final ReadYourWrites readYourWrites;
+
+  @Autowired
+  public ReadYourWritesInterceptor(ReadYourWrites readYourWrites) {
+    this.readYourWrites = readYourWrites;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    if (HttpMethod.GET.matches(request.getMethod())
+        || HttpMethod.HEAD.matches(request.getMethod())
+        || HttpMethod.OPTIONS.matches(request.getMethod())
+        || request.getAttribute(WRITING_USER) != null) {
+      return true;
+    }
+
+    Principal principal = request.getUserPrincipal();
+    if (principal == null) {
+      return true;
+    }
+
+    readYourWrites.writeStarted(principal.getName());
+    request.setAttribute(WRITING_USER, principal.getName());
+
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+      Object handler, Exception ex) {
+    if (request.getAttribute(WRITING_USER) instanceof String userId) {
+      request.removeAttribute(WRITING_USER);
+      readYourWrites.writeFinished(userId);
+    }
+  }
+}
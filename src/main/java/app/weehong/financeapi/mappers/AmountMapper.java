@@ -2,6 +2,7 @@ package app.weehong.financeapi.mappers;
 
 import app.weehong.financeapi.dtos.response.AmountResponseDto;
 import app.weehong.financeapi.entities.Amount;
+import app.weehong.financeapi.projections.amounts.AmountRow;
 
 public class AmountMapper {
 
@@ -17,4 +18,17 @@ public class AmountMapper {
 
     return response;
   }
+
+  public static AmountResponseDto mapAmountRowToAmountResponseDto(AmountRow amount) {
+    AmountResponseDto response = new AmountResponseDto();
+
+    response.setId(amount.id());
+    response.setName(amount.name());
+    response.setInitialAmount(amount.initialAmount());
+    response.setLeftoverAmount(amount.leftoverAmount());
+    response.setCreatedAt(amount.createdAt());
+    response.setUpdatedAt(amount.updatedAt());
+
+    return response;
+  }
 }
@@ -0,0 +1,117 @@
+package app.weehong.financeapi.mappers;
+
+import app.weehong.financeapi.dtos.request.InstallmentRequestDto;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Maps the records of an installment CSV file to request DTOs. The columns are matched by the
+ * header names, which are the same as the JSON properties of {@link InstallmentRequestDto}.
+ */
+public class InstallmentCsvMapper {
+
+  private static final String NAME = "name";
+
+  private static final String AMOUNT = "amount";
+
+  private static final String TENURE = "tenure";
+
+  private static final String START_DATE = "start_date";
+
+  private static final String CARD_ID = "card_id";
+
+  private static final List<String> COLUMNS = List.of(NAME, AMOUNT, TENURE, START_DATE, CARD_ID);
+
+  private final int name;
+
+  private final int amount;
+
+  private final int tenure;
+
+  private final int startDate;
+
+  private final int cardId;
+
+  private InstallmentCsvMapper(Map<String, Integer> columns) {
+    this.name = columns.get(NAME);
+    this.amount = columns.get(AMOUNT);
+    this.tenure = columns.get(TENURE);
+    this.startDate = columns.get(START_DATE);
+    this.cardId = columns.get(CARD_ID);
+  }
+
+  public static InstallmentCsvMapper fromHeader(List<String> header) {
+    if (header == null) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The file is empty.");
+    }
+
+    Map<String, Integer> columns = new HashMap<>();
+    for (int index = 0; index < header.size(); index++) {
+      columns.putIfAbsent(header.get(index).replace("\uFEFF", "").trim().toLowerCase(), index);
+    }
+
+    for (String column : COLUMNS) {
+      if (!columns.containsKey(column)) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            "The header must contain the columns " + String.join(", ", COLUMNS) + ".");
+      }
+    }
+
+    return new InstallmentCsvMapper(columns);
+  }
+
+  /**
+   * Maps a record to a request DTO. Empty cells are left null for the validation to report; a
+   * cell that can't be parsed is rejected with an {@link IllegalArgumentException}.
+   */
+  public InstallmentRequestDto mapRecordToInstallmentRequestDto(List<String> record) {
+    InstallmentRequestDto installmentRequestDto = new InstallmentRequestDto();
+
+    installmentRequestDto.setName(cell(record, name));
+
+    try {
+      String value = cell(record, amount);
+      installmentRequestDto.setTotalAmount(value == null ? null : new BigDecimal(value));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Total amount must be a number");
+    }
+
+    try {
+      String value = cell(record, tenure);
+      installmentRequestDto.setTenure(value == null ? null : Integer.valueOf(value));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Tenure must be a whole number");
+    }
+
+    try {
+      String value = cell(record, startDate);
+      installmentRequestDto.setStartDate(value == null ? null : LocalDate.parse(value));
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Start date must be formatted as yyyy-MM-dd");
+    }
+
+    try {
+      String value = cell(record, cardId);
+      installmentRequestDto.setCardId(value == null ? null : Long.valueOf(value));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Card ID must be a whole number");
+    }
+
+    return installmentRequestDto;
+  }
+
+  private String cell(List<String> record, int index) {
+    if (index >= record.size()) {
+      return null;
+    }
+
+    String value = record.get(index).trim();
+    return value.isEmpty() ? null : value;
+  }
+}
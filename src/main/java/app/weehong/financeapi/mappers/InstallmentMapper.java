@@ -1,7 +1,12 @@
 package app.weehong.financeapi.mappers;
 
+import app.weehong.financeapi.dtos.response.InstallmentExportDto;
 import app.weehong.financeapi.dtos.response.InstallmentResponseDto;
 import app.weehong.financeapi.entities.Installment;
+import app.weehong.financeapi.projections.installments.InstallmentExportRow;
+import app.weehong.financeapi.projections.installments.InstallmentRow;
+import app.weehong.financeapi.utils.StatementDateCalculator;
+import java.time.LocalDate;
 
 public class InstallmentMapper {
 
@@ -24,4 +29,62 @@ public class InstallmentMapper {
     return response;
   }
 
+  /**
+   * Maps the installment with its leftover tenure and active flag derived for the given date rather
+   * than read from the columns the rollover maintains.
+   */
+  public static InstallmentResponseDto mapInstallmentToInstallmentResponseDto(
+      Installment installment, LocalDate date) {
+    InstallmentResponseDto response = mapInstallmentToInstallmentResponseDto(installment);
+
+    int leftoverTenure = Math.toIntExact(StatementDateCalculator.leftoverTenureOn(
+        installment.getEndDate(), installment.getCard().getStatementDate(), date));
+    response.setLeftoverTenure(leftoverTenure);
+    response.setIsActive(leftoverTenure > 0);
+
+    return response;
+  }
+
+  public static InstallmentResponseDto mapInstallmentRowToInstallmentResponseDto(
+      InstallmentRow row, LocalDate date) {
+    InstallmentResponseDto response = new InstallmentResponseDto();
+    int leftoverTenure = Math.toIntExact(StatementDateCalculator.leftoverTenureOn(
+        row.endDate(), row.statementDate(), date));
+
+    response.setId(row.id());
+    response.setName(row.name());
+    response.setTotalAmount(row.totalAmount());
+    response.setTenure(row.tenure());
+    response.setLeftoverTenure(leftoverTenure);
+    response.setPricePerMonth(row.pricePerMonth());
+    response.setStartDate(row.startDate());
+    response.setEndDate(row.endDate());
+    response.setIsActive(leftoverTenure > 0);
+    response.setCreatedAt(row.createdAt());
+    response.setUpdatedAt(row.updatedAt());
+
+    return response;
+  }
+
+  public static InstallmentExportDto mapInstallmentExportRowToInstallmentExportDto(
+      InstallmentExportRow row, LocalDate date) {
+    InstallmentExportDto export = new InstallmentExportDto();
+    int leftoverTenure = Math.toIntExact(StatementDateCalculator.leftoverTenureOn(
+        row.getEndDate(), row.getStatementDate(), date));
+
+    export.setId(row.getId());
+    export.setName(row.getName());
+    export.setTotalAmount(row.getTotalAmount());
+    export.setTenure(row.getTenure());
+    export.setLeftoverTenure(leftoverTenure);
+    export.setPricePerMonth(row.getPricePerMonth());
+    export.setStartDate(row.getStartDate());
+    export.setEndDate(row.getEndDate());
+    export.setIsActive(leftoverTenure > 0);
+    export.setCardId(row.getCardId());
+    export.setCardName(row.getCardName());
+    export.setCreatedAt(row.getCreatedAt());
+
+    return export;
+  }
 }
@@ -0,0 +1,18 @@
+package app.weehong.financeapi.projections.amounts;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An amount as listed, selected with a constructor expression so the rows never enter the
+ * persistence context.
+ */
+public record AmountRow(
+    Long id,
+    String name,
+    BigDecimal initialAmount,
+    BigDecimal leftoverAmount,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt) {
+
+}
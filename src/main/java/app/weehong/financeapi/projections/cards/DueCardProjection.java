@@ -0,0 +1,8 @@
+package app.weehong.financeapi.projections.cards;
+
+public interface DueCardProjection {
+
+  Long getCardId();
+
+  Long getAmountId();
+}
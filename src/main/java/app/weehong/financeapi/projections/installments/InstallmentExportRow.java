@@ -0,0 +1,30 @@
+package app.weehong.financeapi.projections.installments;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface InstallmentExportRow {
+
+  Long getId();
+
+  String getName();
+
+  BigDecimal getTotalAmount();
+
+  Integer getTenure();
+
+  BigDecimal getPricePerMonth();
+
+  LocalDate getStartDate();
+
+  LocalDate getEndDate();
+
+  Long getCardId();
+
+  String getCardName();
+
+  Integer getStatementDate();
+
+  LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,23 @@
+package app.weehong.financeapi.projections.installments;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * An installment with the card, bank and amount it is billed to, as needed by the cash-flow
+ * forecast.
+ */
+public record InstallmentForecastRow(
+    Long id,
+    BigDecimal pricePerMonth,
+    Integer tenure,
+    LocalDate endDate,
+    Long cardId,
+    String cardName,
+    int statementDate,
+    Long bankId,
+    String bankName,
+    Long amountId,
+    String amountName) {
+
+}
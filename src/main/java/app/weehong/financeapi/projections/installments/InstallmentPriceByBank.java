@@ -1,20 +1,15 @@
 package app.weehong.financeapi.projections.installments;
 
-import app.weehong.financeapi.entities.Card;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
-public interface AllValidInstallmentsProjection {
-
-  Long getId();
-
-  LocalDate getEndDate();
-
-  Integer getLeftoverTenure();
+public interface InstallmentPriceByBank {
 
   String getName();
 
   BigDecimal getPricePerMonth();
 
-  Card getCard();
+  LocalDate getEndDate();
+
+  Integer getStatementDate();
 }
@@ -0,0 +1,23 @@
+package app.weehong.financeapi.projections.installments;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * An installment as listed, selected with a constructor expression so the rows never enter the
+ * persistence context. The leftover tenure is not selected since it is derived from the date.
+ */
+public record InstallmentRow(
+    Long id,
+    String name,
+    BigDecimal totalAmount,
+    Integer tenure,
+    BigDecimal pricePerMonth,
+    LocalDate startDate,
+    LocalDate endDate,
+    int statementDate,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt) {
+
+}
@@ -1,10 +0,0 @@
-package app.weehong.financeapi.projections.installments;
-
-import java.math.BigDecimal;
-
-public interface SumInstallmentByBank {
-
-  BigDecimal getTotalAmount();
-
-  String getName();
-}
@@ -1,8 +1,14 @@
 package app.weehong.financeapi.repositories;
 
 import app.weehong.financeapi.entities.Amount;
+import app.weehong.financeapi.projections.amounts.AmountRow;
+import jakarta.persistence.LockModeType;
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
@@ -12,11 +18,14 @@ import org.springframework.stereotype.Repository;
 public interface AmountRepository extends CrudRepository<Amount, Long> {
 
   @Query("""
-      SELECT a
+      SELECT new app.weehong.financeapi.projections.amounts.AmountRow(
+        a.id, a.name, a.initialAmount, a.leftoverAmount, a.createdAt, a.updatedAt)
       FROM Amount a
       WHERE a.user.id = :userId
+      AND a.id > :afterId
+      ORDER BY a.id ASC
       """)
-  Iterable<Amount> findAllByUserId(String userId);
+  List<AmountRow> findAllByUserId(String userId, Long afterId, Pageable pageable);
 
   @Query("""
       SELECT a
@@ -26,11 +35,70 @@ public interface AmountRepository extends CrudRepository<Amount, Long> {
       """)
   Optional<Amount> findByUserId(Long id, String userId);
 
+  @Query("""
+      SELECT a.id
+      FROM Amount a
+      WHERE a.id > :id
+      ORDER BY a.id ASC
+      """)
+  List<Long> findIdsAfter(Long id, Pageable pageable);
+
+  /**
+   * Locks the amounts in id order. A recompute of the leftover takes the lock first, so it waits
+   * for a concurrent delta to commit and then sums the installments that delta was for.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("""
+      SELECT a
+      FROM Amount a
+      WHERE a.id IN :ids
+      ORDER BY a.id ASC
+      """)
+  List<Amount> lockAllByIds(Collection<Long> ids);
+
   @Modifying
   @Query("""
       UPDATE Amount a
-      SET a.leftoverAmount = :leftoverAmount
+      SET a.leftoverAmount = a.leftoverAmount - :delta, a.version = a.version + 1
       WHERE a.id = :id
       """)
-  void updateLeftoverAmountById(Long id, BigDecimal leftoverAmount);
+  int subtractLeftoverAmountById(Long id, BigDecimal delta);
+
+  @Query("""
+      SELECT a.leftoverAmount
+      FROM Amount a
+      WHERE a.id = :id
+      """)
+  BigDecimal findLeftoverAmountById(Long id);
+
+  @Modifying
+  @Query("""
+      UPDATE Amount a
+      SET a.leftoverAmount = a.initialAmount - (
+        SELECT COALESCE(SUM(i.pricePerMonth * i.leftoverTenure), 0)
+        FROM Installment i
+        WHERE i.card.amount = a
+        AND i.isActive = true),
+        a.version = a.version + 1
+      WHERE a.id IN :ids
+      """)
+  int recalculateLeftoverAmountByIds(Collection<Long> ids);
+
+  @Modifying
+  @Query("""
+      UPDATE Amount a
+      SET a.leftoverAmount = a.initialAmount - (
+        SELECT COALESCE(SUM(i.pricePerMonth * i.leftoverTenure), 0)
+        FROM Installment i
+        WHERE i.card.amount = a
+        AND i.isActive = true),
+        a.version = a.version + 1
+      WHERE a.id IN :ids
+      AND a.leftoverAmount <> a.initialAmount - (
+        SELECT COALESCE(SUM(i.pricePerMonth * i.leftoverTenure), 0)
+        FROM Installment i
+        WHERE i.card.amount = a
+        AND i.isActive = true)
+      """)
+  int reconcileLeftoverAmountByIds(Collection<Long> ids);
 }
@@ -1,10 +1,13 @@
 package app.weehong.financeapi.repositories;
 
 import app.weehong.financeapi.entities.Bank;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface BankRepository extends CrudRepository<Bank, Long> {
@@ -13,14 +16,18 @@ public interface BankRepository extends CrudRepository<Bank, Long> {
       SELECT b
       FROM Bank b
       WHERE b.user.id = :userId
+      AND b.id > :afterId
+      ORDER BY b.id ASC
       """)
-  Iterable<Bank> findAllByUserId(String userId);
+  List<Bank> findAllByUserId(String userId, Long afterId, Pageable pageable);
 
-  @Query("""
-      SELECT b
-      FROM Bank b
-      WHERE b.id = :id
-      AND b.user.id = :userId
-      """)
-  Optional<Bank> findByUserId(Long id, String userId);
+  /**
+   * Returns the bank if it belongs to the user. It is looked up by ID so that it comes from the
+   * second-level cache once loaded.
+   */
+  @Transactional(readOnly = true)
+  default Optional<Bank> findByUserId(Long id, String userId) {
+    return findById(id)
+        .filter(bank -> bank.getUser().getId().equals(userId));
+  }
 }
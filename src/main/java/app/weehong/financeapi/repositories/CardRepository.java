@@ -1,10 +1,20 @@
 package app.weehong.financeapi.repositories;
 
 import app.weehong.financeapi.entities.Card;
+import app.weehong.financeapi.projections.cards.DueCardProjection;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface CardRepository extends CrudRepository<Card, Long> {
@@ -12,17 +22,78 @@ public interface CardRepository extends CrudRepository<Card, Long> {
   @Query("""
       SELECT c
       FROM Card c
-      LEFT JOIN FETCH Bank b ON c.bank = b
+      JOIN FETCH c.amount a
+      JOIN c.bank b
       WHERE b.user.id = :userId
+      AND c.id > :afterId
+      ORDER BY c.id ASC
       """)
-  Iterable<Card> findAllByUserId(String userId);
+  List<Card> findAllByUserId(String userId, Long afterId, Pageable pageable);
 
+  /**
+   * Initializes the installments of the given cards in one query. The page is loaded first and
+   * its collections fetched here, since fetching a collection in a paginated query would page in
+   * memory.
+   */
   @Query("""
       SELECT c
       FROM Card c
-      LEFT JOIN FETCH Bank b ON c.bank = b
+      LEFT JOIN FETCH c.installments i
+      WHERE c.id IN :ids
+      """)
+  List<Card> fetchInstallmentsByIds(Collection<Long> ids);
+
+  @Query("""
+      SELECT c
+      FROM Card c
+      JOIN FETCH c.amount a
+      JOIN c.bank b
       WHERE c.id = :id
       AND b.user.id = :userId
       """)
   Optional<Card> findByUserId(Long id, String userId);
+
+  /**
+   * Returns the card if it belongs to the user, taking the card and its bank from the
+   * second-level cache once loaded. Unlike {@link #findByUserId} the amount is not fetched, so
+   * this suits the writes that only need its ID.
+   */
+  @Transactional(readOnly = true)
+  default Optional<Card> findCachedByUserId(Long id, String userId) {
+    return findById(id)
+        .filter(card -> card.getBank().getUser().getId().equals(userId));
+  }
+
+  @Query("""
+      SELECT c
+      FROM Card c
+      JOIN FETCH c.amount a
+      JOIN c.bank b
+      WHERE c.id IN :ids
+      AND b.user.id = :userId
+      """)
+  List<Card> findAllByIdsAndUserId(Collection<Long> ids, String userId);
+
+  @Query("""
+      SELECT c.id as cardId, c.amount.id as amountId
+      FROM Card c
+      WHERE c.statementDate IN :statementDates
+      AND EXISTS (
+        SELECT i.id
+        FROM Installment i
+        WHERE i.card = c
+        AND i.isActive = true)
+      AND NOT EXISTS (
+        SELECT w.cardId
+        FROM RolloverWatermark w
+        WHERE w.cardId = c.id
+        AND w.lastStatementDate >= :statementDate)
+      ORDER BY c.amount.id, c.id
+      """)
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  Stream<DueCardProjection> streamDueCardsByStatementDates(Collection<Integer> statementDates,
+      LocalDate statementDate);
 }
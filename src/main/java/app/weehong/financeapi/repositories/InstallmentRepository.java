@@ -1,12 +1,22 @@
 package app.weehong.financeapi.repositories;
 
 import app.weehong.financeapi.entities.Installment;
-import app.weehong.financeapi.projections.installments.AllValidInstallmentsProjection;
-import app.weehong.financeapi.projections.installments.SumInstallmentByBank;
+import app.weehong.financeapi.projections.installments.InstallmentExportRow;
+import app.weehong.financeapi.projections.installments.InstallmentForecastRow;
+import app.weehong.financeapi.projections.installments.InstallmentPriceByBank;
+import app.weehong.financeapi.projections.installments.InstallmentRow;
+import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -14,55 +24,121 @@ import org.springframework.stereotype.Repository;
 public interface InstallmentRepository extends CrudRepository<Installment, Long> {
 
   @Query("""
-      SELECT i
+      SELECT new app.weehong.financeapi.projections.installments.InstallmentRow(
+        i.id, i.name, i.totalAmount, i.tenure, i.pricePerMonth, i.startDate, i.endDate,
+        c.statementDate, i.createdAt, i.updatedAt)
       FROM Installment i
-      LEFT JOIN FETCH Card c ON i.card = c
-      LEFT JOIN FETCH Bank b ON c.bank = b
-      WHERE i.isActive = true
+      JOIN i.card c
+      JOIN c.bank b
+      WHERE i.endDate > :endDateAfter
       AND b.user.id = :userId
-      ORDER BY i.leftoverTenure ASC
+      AND (i.endDate > :afterEndDate OR (i.endDate = :afterEndDate AND i.id > :afterId))
+      ORDER BY i.endDate ASC, i.id ASC
       """)
-  Iterable<Installment> findAllByUserId(String userId);
+  List<InstallmentRow> findAllByUserId(String userId, LocalDate endDateAfter, LocalDate afterEndDate,
+      Long afterId, Pageable pageable);
 
   @Query("""
       SELECT i
       FROM Installment i
       LEFT JOIN FETCH Card c ON i.card = c
       LEFT JOIN FETCH Bank b ON c.bank = b
-      WHERE i.isActive = true
+      WHERE i.endDate > :endDateAfter
       AND i.id = :id
       AND b.user.id = :userId
       """)
-  Optional<Installment> findByUserId(Long id, String userId);
+  Optional<Installment> findByUserId(Long id, String userId, LocalDate endDateAfter);
+
+  @Query("""
+      SELECT i.name
+      FROM Installment i
+      WHERE i.name IN :names
+      """)
+  List<String> findNamesIn(Collection<String> names);
 
   @Query("""
       SELECT COALESCE(SUM(i.pricePerMonth * i.leftoverTenure), 0)
       FROM Installment i
-      LEFT JOIN FETCH Card c ON i.card = c
-      LEFT JOIN FETCH Bank b ON c.bank = b
-      LEFT JOIN FETCH Amount a ON c.amount = a
-      WHERE a.id = :id
+      WHERE i.isActive = true
+      AND i.card.id = :cardId
+      """)
+  BigDecimal sumOutstandingAmountByCardId(Long cardId);
+
+  @Modifying
+  @Query("""
+      UPDATE Installment i
+      SET i.leftoverTenure = (YEAR(i.endDate) * 12 + MONTH(i.endDate)) - :monthIndex
+        - (CASE WHEN DAY(i.endDate) <= :dayOfMonth THEN 1 ELSE 0 END),
+        i.version = i.version + 1
+      WHERE (i.endDate > :endDateAfter OR i.leftoverTenure > 0)
+      AND i.card.id IN :cardIds
+      """)
+  int rolloverLeftoverTenureByCardIds(Collection<Long> cardIds, LocalDate endDateAfter,
+      int monthIndex, int dayOfMonth);
+
+  @Modifying
+  @Query("""
+      UPDATE Installment i
+      SET i.leftoverTenure = 0, i.isActive = false, i.version = i.version + 1
+      WHERE i.isActive = true
+      AND i.leftoverTenure <= 0
+      AND i.card.id IN :cardIds
+      """)
+  int deactivateCompletedInstallmentsByCardIds(Collection<Long> cardIds);
+
+  @Query("""
+      SELECT b.name as name, i.pricePerMonth as pricePerMonth, i.endDate as endDate,
+        c.statementDate as statementDate
+      FROM Installment i
+      JOIN i.card c
+      JOIN c.bank b
+      WHERE i.endDate > :endDateAfter
       AND b.user.id = :userId
+      ORDER BY b.name ASC
       """)
-  BigDecimal SumInstallmentByAmountId(Long id, String userId);
+  List<InstallmentPriceByBank> findPricePerMonthByUserId(String userId, LocalDate endDateAfter);
 
   @Query("""
-      SELECT i.endDate as endDate, i.id as id, i.leftoverTenure as leftoverTenure, i.name as name, i.pricePerMonth as pricePerMonth, i.card as card
+      SELECT i.id as id, i.name as name, i.totalAmount as totalAmount, i.tenure as tenure,
+        i.pricePerMonth as pricePerMonth, i.startDate as startDate, i.endDate as endDate,
+        c.id as cardId, c.name as cardName, c.statementDate as statementDate,
+        i.createdAt as createdAt
       FROM Installment i
-      LEFT JOIN FETCH Card c ON i.card = c
-      LEFT JOIN FETCH Amount a ON c.amount = a
-      WHERE i.isActive = true
+      JOIN i.card c
+      JOIN c.bank b
+      WHERE b.user.id = :userId
+      ORDER BY i.id ASC
       """)
-  List<AllValidInstallmentsProjection> findAllValidInstallments();
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  Stream<InstallmentExportRow> streamAllByUserId(String userId);
 
   @Query("""
-      SELECT SUM(i.pricePerMonth) as totalAmount, b.name as name
+      SELECT new app.weehong.financeapi.projections.installments.InstallmentForecastRow(
+        i.id, i.pricePerMonth, i.tenure, i.endDate, c.id, c.name, c.statementDate, b.id, b.name,
+        a.id, a.name)
       FROM Installment i
-      LEFT JOIN FETCH Card c ON i.card = c
-      LEFT JOIN FETCH Bank b ON c.bank = b
-      WHERE i.isActive = true
+      JOIN i.card c
+      JOIN c.bank b
+      JOIN c.amount a
+      WHERE i.endDate > :endDateAfter
+      AND b.user.id = :userId
+      """)
+  List<InstallmentForecastRow> findForecastRowsByUserId(String userId, LocalDate endDateAfter);
+
+  @Query("""
+      SELECT new app.weehong.financeapi.projections.installments.InstallmentForecastRow(
+        i.id, i.pricePerMonth, i.tenure, i.endDate, c.id, c.name, c.statementDate, b.id, b.name,
+        a.id, a.name)
+      FROM Installment i
+      JOIN i.card c
+      JOIN c.bank b
+      JOIN c.amount a
+      WHERE i.id IN :ids
       AND b.user.id = :userId
-      GROUP BY b.name
       """)
-  List<SumInstallmentByBank> SumInstallmentGroupByBank(String userId);
+  List<InstallmentForecastRow> findForecastRowsByIdsAndUserId(Collection<Long> ids,
+      String userId);
 }
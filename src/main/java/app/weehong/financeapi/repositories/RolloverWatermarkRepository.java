@@ -0,0 +1,43 @@
+package app.weehong.financeapi.repositories;
+
+import app.weehong.financeapi.entities.RolloverWatermark;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RolloverWatermarkRepository extends CrudRepository<RolloverWatermark, Long> {
+
+  @Modifying
+  @Query("""
+      UPDATE RolloverWatermark w
+      SET w.lastStatementDate = :statementDate
+      WHERE w.cardId IN :cardIds
+      AND w.lastStatementDate < :statementDate
+      """)
+  int advanceByCardIds(Collection<Long> cardIds, LocalDate statementDate);
+
+  /**
+   * Declares the table it writes, since a native write without one makes Hibernate clear every
+   * region of the second-level cache.
+   */
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "rollover_watermarks"))
+  @Query(value = """
+      INSERT INTO rollover_watermarks (card_id, last_statement_date)
+      SELECT c.id, CAST(:statementDate AS DATE)
+      FROM cards c
+      WHERE c.id IN :cardIds
+      AND NOT EXISTS (
+        SELECT 1
+        FROM rollover_watermarks w
+        WHERE w.card_id = c.id)
+      """, nativeQuery = true)
+  int insertByCardIds(Collection<Long> cardIds, LocalDate statementDate);
+}
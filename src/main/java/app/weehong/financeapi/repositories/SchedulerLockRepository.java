@@ -0,0 +1,48 @@
+package app.weehong.financeapi.repositories;
+
+import app.weehong.financeapi.entities.SchedulerLock;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SchedulerLockRepository extends CrudRepository<SchedulerLock, String> {
+
+  @Modifying
+  @Query("""
+      UPDATE SchedulerLock l
+      SET l.owner = :owner, l.lockedUntil = :lockedUntil, l.fencingToken = l.fencingToken + 1
+      WHERE l.name = :name
+      AND l.lockedUntil < :now
+      """)
+  int acquire(String name, String owner, LocalDateTime now, LocalDateTime lockedUntil);
+
+  @Modifying
+  @Query("""
+      UPDATE SchedulerLock l
+      SET l.lockedUntil = :lockedUntil
+      WHERE l.name = :name
+      AND l.owner = :owner
+      AND l.fencingToken = :fencingToken
+      """)
+  int renew(String name, String owner, long fencingToken, LocalDateTime lockedUntil);
+
+  /**
+   * Finds the lock while it is held with the fencing token and share-locks its row, so parallel
+   * chunks of one leader can hold it together while a new leader's acquire waits for them.
+   */
+  @Lock(LockModeType.PESSIMISTIC_READ)
+  @Query("""
+      SELECT l
+      FROM SchedulerLock l
+      WHERE l.name = :name
+      AND l.owner = :owner
+      AND l.fencingToken = :fencingToken
+      """)
+  Optional<SchedulerLock> findHeld(String name, String owner, long fencingToken);
+}
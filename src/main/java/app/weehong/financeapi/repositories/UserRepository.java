@@ -1,9 +1,24 @@
 package app.weehong.financeapi.repositories;
 
 import app.weehong.financeapi.entities.User;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface UserRepository extends CrudRepository<User, String> {
+
+  /**
+   * Reads in a read-only transaction so that it goes to the same database as the body it tags,
+   * which keeps a tag from being newer than its body when reads go to a replica.
+   */
+  @Transactional(readOnly = true)
+  @Query("""
+      SELECT u.dataVersion
+      FROM User u
+      WHERE u.id = :id
+      """)
+  Optional<Long> findDataVersionById(String id);
 }
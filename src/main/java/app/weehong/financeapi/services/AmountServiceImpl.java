@@ -4,23 +4,24 @@ import static app.weehong.financeapi.mappers.AmountMapper.mapAmountToAmountRespo
 
 import app.weehong.financeapi.dtos.request.AmountRequestDto;
 import app.weehong.financeapi.dtos.response.AmountResponseDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
 import app.weehong.financeapi.entities.Amount;
 import app.weehong.financeapi.entities.User;
 import app.weehong.financeapi.mappers.AmountMapper;
+import app.weehong.financeapi.projections.amounts.AmountRow;
 import app.weehong.financeapi.repositories.AmountRepository;
-import app.weehong.financeapi.repositories.InstallmentRepository;
 import app.weehong.financeapi.repositories.UserRepository;
-import app.weehong.financeapi.utils.InstallmentCalculator;
-import jakarta.transaction.Transactional;
+import app.weehong.financeapi.utils.AmountWriteCoordinator;
+import app.weehong.financeapi.utils.DashboardCache;
+import app.weehong.financeapi.utils.ForecastCache;
+import app.weehong.financeapi.utils.PageCursor;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
@@ -28,22 +29,26 @@ public class AmountServiceImpl implements AmountService<AmountResponseDto, Amoun
 
   private final AmountRepository amountRepository;
 
-  private final InstallmentRepository installmentRepository;
-
   private final UserRepository userRepository;
 
-  private final InstallmentCalculator installmentCalculator;
+  private final AmountWriteCoordinator amountWriteCoordinator;
+
+  private final DashboardCache dashboardCache;
+
+  private final ForecastCache forecastCache;
 
   @Autowired
   public AmountServiceImpl(
       AmountRepository amountRepository,
       UserRepository userRepository,
-      InstallmentRepository installmentRepository,
-      InstallmentCalculator installmentCalculator) {
+      AmountWriteCoordinator amountWriteCoordinator,
+      DashboardCache dashboardCache,
+      ForecastCache forecastCache) {
     this.amountRepository = amountRepository;
     this.userRepository = userRepository;
-    this.installmentRepository = installmentRepository;
-    this.installmentCalculator = installmentCalculator;
+    this.amountWriteCoordinator = amountWriteCoordinator;
+    this.dashboardCache = dashboardCache;
+    this.forecastCache = forecastCache;
   }
 
   @Override
@@ -66,46 +71,57 @@ public class AmountServiceImpl implements AmountService<AmountResponseDto, Amoun
   }
 
   @Override
-  public List<AmountResponseDto> all(String userId) {
-    Iterable<Amount> amounts = amountRepository.findAllByUserId(userId);
-    Stream<Amount> amountStream = StreamSupport.stream(amounts.spliterator(), false);
-
-    return amountStream.map(AmountMapper::mapAmountToAmountResponseDto)
-        .collect(Collectors.toList());
+  @Transactional(readOnly = true)
+  public CursorPageDto<AmountResponseDto> all(String userId, String cursor, Integer limit) {
+    int pageLimit = PageCursor.limit(limit);
+    List<AmountRow> amounts = amountRepository.findAllByUserId(userId,
+        PageCursor.decodeId(cursor), PageCursor.pageable(pageLimit));
+
+    return PageCursor.page(amounts, pageLimit, amount -> PageCursor.encode(amount.id()),
+        AmountMapper::mapAmountRowToAmountResponseDto);
   }
 
   @Override
+  @Transactional(readOnly = true)
   public AmountResponseDto getById(Long id, String userId) {
-    Optional<User> user = userRepository.findById(userId);
-    Optional<Amount> amount = amountRepository.findByUserId(id, userId);
+    return dashboardCache.amount(id, userId, () -> {
+      Optional<User> user = userRepository.findById(userId);
+      Optional<Amount> amount = amountRepository.findByUserId(id, userId);
 
-    if (!user.isPresent() || !amount.isPresent()) {
-      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
-    }
+      if (!user.isPresent() || !amount.isPresent()) {
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
+      }
 
-    return mapAmountToAmountResponseDto(amount.get());
+      return mapAmountToAmountResponseDto(amount.get());
+    });
   }
 
   @Override
   public AmountResponseDto update(Long id, String userId, AmountRequestDto amountRequestDto) {
-    Optional<User> user = userRepository.findById(userId);
-    Optional<Amount> amount = amountRepository.findByUserId(id, userId);
-
-    if (!user.isPresent() || !amount.isPresent()) {
-      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
-    }
-
-    BigDecimal totalAmount = installmentRepository.SumInstallmentByAmountId(amount.get().getId(),
-        userId);
-
-    amount.get().setName(amountRequestDto.getName());
-    amount.get().setInitialAmount(amountRequestDto.getAmount());
-    amount.get().setLeftoverAmount(
-        installmentCalculator.calculateLeftoverAmount(totalAmount, amountRequestDto.getAmount()));
-
-    Amount updatedAmount = amountRepository.save(amount.get());
-
-    return mapAmountToAmountResponseDto(updatedAmount);
+    return amountWriteCoordinator.execute(id, () -> {
+      Optional<User> user = userRepository.findById(userId);
+      Optional<Amount> amount = amountRepository.findByUserId(id, userId);
+
+      if (!user.isPresent() || !amount.isPresent()) {
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
+      }
+
+      BigDecimal delta = amount.get().getInitialAmount().subtract(amountRequestDto.getAmount());
+
+      amount.get().setName(amountRequestDto.getName());
+      amount.get().setInitialAmount(amountRequestDto.getAmount());
+
+      Amount updatedAmount = amountRepository.save(amount.get());
+      amountRepository.subtractLeftoverAmountById(updatedAmount.getId(), delta);
+      dashboardCache.evictAmounts(List.of(updatedAmount.getId()));
+      forecastCache.evict(userId);
+
+      // The atomic update bypasses the loaded entity, so the leftover is read back after it.
+      AmountResponseDto amountResponseDto = mapAmountToAmountResponseDto(updatedAmount);
+      amountResponseDto.setLeftoverAmount(
+          amountRepository.findLeftoverAmountById(updatedAmount.getId()));
+      return amountResponseDto;
+    });
   }
 
   @Transactional
@@ -118,6 +134,8 @@ public class AmountServiceImpl implements AmountService<AmountResponseDto, Amoun
     }
 
     amountRepository.deleteById(id);
+    dashboardCache.evictAmounts(List.of(id));
+    forecastCache.evict(userId);
 
     amount = amountRepository.findById(id);
     return !amount.isPresent();
@@ -2,18 +2,21 @@ package app.weehong.financeapi.services;
 
 import app.weehong.financeapi.dtos.request.BankRequestDto;
 import app.weehong.financeapi.dtos.response.BankResponseDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
 import app.weehong.financeapi.entities.Bank;
 import app.weehong.financeapi.entities.User;
 import app.weehong.financeapi.mappers.BankMapper;
 import app.weehong.financeapi.repositories.BankRepository;
 import app.weehong.financeapi.repositories.UserRepository;
+import app.weehong.financeapi.utils.DashboardCache;
+import app.weehong.financeapi.utils.ForecastCache;
+import app.weehong.financeapi.utils.PageCursor;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
@@ -23,10 +26,17 @@ public class BankServiceImpl implements BankService<BankResponseDto, BankRequest
 
   private final UserRepository userRepository;
 
+  private final DashboardCache dashboardCache;
+
+  private final ForecastCache forecastCache;
+
   @Autowired
-  public BankServiceImpl(BankRepository bankRepository, UserRepository userRepository) {
+  public BankServiceImpl(BankRepository bankRepository, UserRepository userRepository,
+      DashboardCache dashboardCache, ForecastCache forecastCache) {
     this.bankRepository = bankRepository;
     this.userRepository = userRepository;
+    this.dashboardCache = dashboardCache;
+    this.forecastCache = forecastCache;
   }
 
   @Override
@@ -47,14 +57,17 @@ public class BankServiceImpl implements BankService<BankResponseDto, BankRequest
   }
 
   @Override
-  public List<BankResponseDto> all(String userId) {
-    Iterable<Bank> banks = bankRepository.findAllByUserId(userId);
-    return StreamSupport.stream(banks.spliterator(), false)
-        .map(BankMapper::mapBankToBankResponseDto)
-        .collect(Collectors.toList());
+  @Transactional(readOnly = true)
+  public CursorPageDto<BankResponseDto> all(String userId, String cursor, Integer limit) {
+    int pageLimit = PageCursor.limit(limit);
+    List<Bank> banks = bankRepository.findAllByUserId(userId, PageCursor.decodeId(cursor),
+        PageCursor.pageable(pageLimit));
+    return PageCursor.page(banks, pageLimit, bank -> PageCursor.encode(bank.getId()),
+        BankMapper::mapBankToBankResponseDto);
   }
 
   @Override
+  @Transactional(readOnly = true)
   public BankResponseDto getById(Long id, String userId) {
     Optional<Bank> bank = bankRepository.findByUserId(id, userId);
 
@@ -76,6 +89,8 @@ public class BankServiceImpl implements BankService<BankResponseDto, BankRequest
     bank.get().setName(bankRequestDto.getName());
 
     Bank updatedBank = bankRepository.save(bank.get());
+    dashboardCache.evictTotalPricePerMonth(userId);
+    forecastCache.evict(userId);
 
     return BankMapper.mapBankToBankResponseDto(updatedBank);
   }
@@ -89,6 +104,8 @@ public class BankServiceImpl implements BankService<BankResponseDto, BankRequest
     }
 
     bankRepository.deleteById(id);
+    dashboardCache.evictTotalPricePerMonth(userId);
+    forecastCache.evict(userId);
 
     bank = bankRepository.findById(id);
     return !bank.isPresent();
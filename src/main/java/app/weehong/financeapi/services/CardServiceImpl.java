@@ -2,6 +2,7 @@ package app.weehong.financeapi.services;
 
 import app.weehong.financeapi.dtos.request.CardRequestDto;
 import app.weehong.financeapi.dtos.response.CardResponseDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
 import app.weehong.financeapi.dtos.response.InstallmentResponseDto;
 import app.weehong.financeapi.entities.Amount;
 import app.weehong.financeapi.entities.Bank;
@@ -11,16 +12,25 @@ import app.weehong.financeapi.mappers.InstallmentMapper;
 import app.weehong.financeapi.repositories.AmountRepository;
 import app.weehong.financeapi.repositories.BankRepository;
 import app.weehong.financeapi.repositories.CardRepository;
+import app.weehong.financeapi.repositories.InstallmentRepository;
 import app.weehong.financeapi.repositories.UserRepository;
+import app.weehong.financeapi.utils.AmountWriteCoordinator;
+import app.weehong.financeapi.utils.DashboardCache;
+import app.weehong.financeapi.utils.ForecastCache;
+import app.weehong.financeapi.utils.PageCursor;
+import app.weehong.financeapi.utils.StatementDateCalculator;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.TreeMap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
@@ -34,13 +44,27 @@ public class CardServiceImpl implements CardService<CardResponseDto, CardRequest
 
   private final UserRepository userRepository;
 
+  private final InstallmentRepository installmentRepository;
+
+  private final AmountWriteCoordinator amountWriteCoordinator;
+
+  private final DashboardCache dashboardCache;
+
+  private final ForecastCache forecastCache;
+
   @Autowired
   public CardServiceImpl(AmountRepository amountRepository, CardRepository cardRepository,
-      BankRepository bankRepository, UserRepository userRepository) {
+      BankRepository bankRepository, UserRepository userRepository,
+      InstallmentRepository installmentRepository, AmountWriteCoordinator amountWriteCoordinator,
+      DashboardCache dashboardCache, ForecastCache forecastCache) {
     this.amountRepository = amountRepository;
     this.cardRepository = cardRepository;
     this.bankRepository = bankRepository;
     this.userRepository = userRepository;
+    this.installmentRepository = installmentRepository;
+    this.amountWriteCoordinator = amountWriteCoordinator;
+    this.dashboardCache = dashboardCache;
+    this.forecastCache = forecastCache;
   }
 
   @Override
@@ -70,14 +94,18 @@ public class CardServiceImpl implements CardService<CardResponseDto, CardRequest
   }
 
   @Override
-  public List<CardResponseDto> all(String userId) {
-    Iterable<Card> cards = cardRepository.findAllByUserId(userId);
-    return StreamSupport.stream(cards.spliterator(), false)
-        .map(this::mapCardToCardResponseDto)
-        .collect(Collectors.toList());
+  @Transactional(readOnly = true)
+  public CursorPageDto<CardResponseDto> all(String userId, String cursor, Integer limit) {
+    int pageLimit = PageCursor.limit(limit);
+    List<Card> cards = cardRepository.findAllByUserId(userId, PageCursor.decodeId(cursor),
+        PageCursor.pageable(pageLimit));
+    fetchInstallments(cards);
+    return PageCursor.page(cards, pageLimit, card -> PageCursor.encode(card.getId()),
+        this::mapCardToCardResponseDto);
   }
 
   @Override
+  @Transactional(readOnly = true)
   public CardResponseDto getById(Long id, String userId) {
     Optional<Card> card = cardRepository.findByUserId(id, userId);
 
@@ -85,42 +113,109 @@ public class CardServiceImpl implements CardService<CardResponseDto, CardRequest
       throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
     }
 
+    fetchInstallments(List.of(card.get()));
     return mapCardToCardResponseDto(card.get());
   }
 
+  /**
+   * Updates the card. A card moved to another amount takes the outstanding amount of its
+   * installments along, in the same write as the move.
+   */
   @Override
   public CardResponseDto update(Long id, String userId, CardRequestDto cardRequestDto) {
     Optional<Card> card = cardRepository.findByUserId(id, userId);
-    Optional<Amount> amount = amountRepository.findByUserId(id, userId);
-    Optional<Bank> bank = bankRepository.findByUserId(id, userId);
+    Optional<Amount> amount = amountRepository.findByUserId(cardRequestDto.getAmountId(), userId);
+    Optional<Bank> bank = bankRepository.findByUserId(cardRequestDto.getBankId(), userId);
 
     if (!card.isPresent() || !amount.isPresent() || !bank.isPresent()) {
       throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
     }
 
-    card.get().setName(cardRequestDto.getName());
-    card.get().setStatementDate(cardRequestDto.getStatementDate());
-    card.get().setAmount(amount.get());
-    card.get().setBank(bank.get());
-    Card updateCard = cardRepository.save(card.get());
-
-    return mapCardToCardResponseDto(updateCard);
+    return amountWriteCoordinator.execute(card.get().getAmount().getId(), () -> {
+      Card currentCard = cardRepository.findByUserId(id, userId)
+          .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+              "Record ID doesn't exist."));
+      Long previousAmountId = currentCard.getAmount().getId();
+      Long amountId = amount.get().getId();
+
+      currentCard.setName(cardRequestDto.getName());
+      currentCard.setStatementDate(cardRequestDto.getStatementDate());
+      currentCard.setAmount(amount.get());
+      currentCard.setBank(bank.get());
+      Card updateCard = cardRepository.save(currentCard);
+
+      if (!previousAmountId.equals(amountId)) {
+        moveOutstandingAmount(id, previousAmountId, amountId);
+        dashboardCache.evictAmounts(List.of(previousAmountId, amountId));
+      }
+      dashboardCache.evictTotalPricePerMonth(userId);
+      forecastCache.evict(userId);
+
+      return mapCardToCardResponseDto(updateCard);
+    });
   }
 
+  /**
+   * Deletes the card with its installments and gives their outstanding amount back to the
+   * leftover of the card's amount in the same write.
+   */
   @Override
   public boolean delete(Long id, String userId) {
-    Optional<Card> card = cardRepository.findByUserId(id, userId);
+    Optional<Card> card = cardRepository.findCachedByUserId(id, userId);
 
     if (!card.isPresent()) {
       throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
     }
 
-    cardRepository.deleteById(id);
+    Long amountId = card.get().getAmount().getId();
+    amountWriteCoordinator.execute(amountId, () -> {
+      BigDecimal outstandingAmount = installmentRepository.sumOutstandingAmountByCardId(id);
+
+      cardRepository.deleteById(id);
+      if (outstandingAmount.signum() != 0) {
+        amountRepository.subtractLeftoverAmountById(amountId, outstandingAmount.negate());
+      }
+      dashboardCache.evictAmounts(List.of(amountId));
+      dashboardCache.evictTotalPricePerMonth(userId);
+      forecastCache.evict(userId);
+      return null;
+    });
 
     card = cardRepository.findById(id);
     return !card.isPresent();
   }
 
+  /**
+   * Moves the outstanding amount of the card's installments from one amount to the other. The
+   * amounts are updated in id order, so two cards moving in opposite directions at the same time
+   * lock the rows in the same order instead of deadlocking.
+   */
+  private void moveOutstandingAmount(Long cardId, Long fromAmountId, Long toAmountId) {
+    BigDecimal outstandingAmount = installmentRepository.sumOutstandingAmountByCardId(cardId);
+
+    if (outstandingAmount.signum() == 0) {
+      return;
+    }
+
+    Map<Long, BigDecimal> deltas = new TreeMap<>(Map.of(
+        fromAmountId, outstandingAmount.negate(),
+        toAmountId, outstandingAmount));
+    deltas.forEach(amountRepository::subtractLeftoverAmountById);
+  }
+
+  /**
+   * Loads the installments of the cards in one query before they are mapped. The cards come with
+   * their amount fetched and their bank id in the foreign key, so mapping them needs no further
+   * query whatever their number.
+   */
+  private void fetchInstallments(List<Card> cards) {
+    if (cards.isEmpty()) {
+      return;
+    }
+
+    cardRepository.fetchInstallmentsByIds(cards.stream().map(Card::getId).toList());
+  }
+
   private CardResponseDto mapCardToCardResponseDto(Card card) {
     CardResponseDto response = new CardResponseDto();
 
@@ -132,10 +227,11 @@ public class CardServiceImpl implements CardService<CardResponseDto, CardRequest
     response.setLeftoverAmount(card.getAmount().getLeftoverAmount());
 
     if (card.getInstallments() != null && !card.getInstallments().isEmpty()) {
+      LocalDate today = StatementDateCalculator.today();
       Set<InstallmentResponseDto> installments = new HashSet<>();
       card.getInstallments().forEach(unit -> {
         InstallmentResponseDto installment = InstallmentMapper.mapInstallmentToInstallmentResponseDto(
-            unit);
+            unit, today);
 
         installments.add(installment);
       });
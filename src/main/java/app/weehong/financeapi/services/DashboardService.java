@@ -0,0 +1,8 @@
+package app.weehong.financeapi.services;
+
+import app.weehong.financeapi.dtos.response.DashboardResponseDto;
+
+public interface DashboardService {
+
+  DashboardResponseDto dashboard(String userId);
+}
@@ -0,0 +1,217 @@
+package app.weehong.financeapi.services;
+
+import app.weehong.financeapi.configs.DashboardProperties;
+import app.weehong.financeapi.dtos.request.AmountRequestDto;
+import app.weehong.financeapi.dtos.request.BankRequestDto;
+import app.weehong.financeapi.dtos.request.CardRequestDto;
+import app.weehong.financeapi.dtos.request.InstallmentRequestDto;
+import app.weehong.financeapi.dtos.response.AmountResponseDto;
+import app.weehong.financeapi.dtos.response.BankResponseDto;
+import app.weehong.financeapi.dtos.response.CardResponseDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
+import app.weehong.financeapi.dtos.response.DashboardResponseDto;
+import app.weehong.financeapi.dtos.response.InstallmentResponseDto;
+import app.weehong.financeapi.utils.DataSourcePools;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Loads the views the client needs on startup in one call. The sections are independent reads, so
+ * they run concurrently on a dedicated executor, each in its own read-only transaction. The
+ * executor is shared by all requests and no larger than half of the connection pool, so a burst
+ * of dashboard calls queues up instead of draining the pool.
+ */
+@Slf4j
+@Service
+public class DashboardServiceImpl implements DashboardService {
+
+  static final String AMOUNTS = "amounts";
+
+  static final String BANKS = "banks";
+
+  static final String CARDS = "cards";
+
+  static final String TOTAL_PRICE_PER_MONTH = "total_price_per_month";
+
+  private final AmountService<AmountResponseDto, AmountRequestDto> amountService;
+
+  private final BankService<BankResponseDto, BankRequestDto> bankService;
+
+  private final CardService<CardResponseDto, CardRequestDto> cardService;
+
+  private final InstallmentService<InstallmentResponseDto, InstallmentRequestDto> installmentService;
+
+  private final DashboardProperties properties;
+
+  private final MeterRegistry meterRegistry;
+
+  private final ExecutorService executorService;
+
+  @Autowired
+  public DashboardServiceImpl(
+      AmountService<AmountResponseDto, AmountRequestDto> amountService,
+      BankService<BankResponseDto, BankRequestDto> bankService,
+      CardService<CardResponseDto, CardRequestDto> cardService,
+      InstallmentService<InstallmentResponseDto, InstallmentRequestDto> installmentService,
+      DashboardProperties properties,
+      MeterRegistry meterRegistry,
+      DataSource dataSource) {
+    this.amountService = amountService;
+    this.bankService = bankService;
+    this.cardService = cardService;
+    this.installmentService = installmentService;
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+    // Carries the user over to the sections, which the replica routing reads.
+    this.executorService = new DelegatingSecurityContextExecutorService(
+        Executors.newFixedThreadPool(calculateParallelism(properties.getParallelism(), dataSource),
+            new CustomizableThreadFactory("dashboard-")));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executorService.shutdown();
+  }
+
+  @Override
+  public DashboardResponseDto dashboard(String userId) {
+    Section<CursorPageDto<AmountResponseDto>> amounts = submit(AMOUNTS,
+        () -> amountService.all(userId, null, null));
+    Section<CursorPageDto<BankResponseDto>> banks = submit(BANKS,
+        () -> bankService.all(userId, null, null));
+    Section<CursorPageDto<CardResponseDto>> cards = submit(CARDS,
+        () -> cardService.all(userId, null, null));
+    Section<List<InstallmentResponseDto>> totalPricePerMonth = submit(TOTAL_PRICE_PER_MONTH,
+        () -> installmentService.totalPricePerMonth(userId));
+    List<Section<?>> sections = List.of(amounts, banks, cards, totalPricePerMonth);
+
+    try {
+      CompletableFuture.allOf(sections.stream()
+              .map(Section::future)
+              .toArray(CompletableFuture[]::new))
+          .get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      sections.forEach(section -> section.future().cancel(false));
+      log.warn("DashboardServiceImpl - dashboard(): timed out after {}", properties.getTimeout());
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+          "Dashboard took too long to load.");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      sections.forEach(section -> section.future().cancel(false));
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+          "Dashboard loading was interrupted.");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+
+    Map<String, String> nextCursors = new LinkedHashMap<>();
+    putNextCursor(nextCursors, AMOUNTS, amounts.future().join());
+    putNextCursor(nextCursors, BANKS, banks.future().join());
+    putNextCursor(nextCursors, CARDS, cards.future().join());
+
+    Map<String, Duration> timings = new LinkedHashMap<>();
+    sections.forEach(section -> timings.put(section.name(), section.duration()));
+
+    return DashboardResponseDto.builder()
+        .amounts(amounts.future().join().getItems())
+        .banks(banks.future().join().getItems())
+        .cards(cards.future().join().getItems())
+        .totalPricePerMonth(totalPricePerMonth.future().join())
+        .nextCursors(nextCursors.isEmpty() ? null : nextCursors)
+        .timings(timings)
+        .build();
+  }
+
+  private <T> Section<T> submit(String name, Supplier<T> supplier) {
+    Section<T> section = new Section<>(name);
+
+    section.future = CompletableFuture.supplyAsync(() -> {
+      long startedAt = System.nanoTime();
+      try {
+        return supplier.get();
+      } finally {
+        section.nanos = System.nanoTime() - startedAt;
+        meterRegistry.timer("dashboard.section.duration", "section", name)
+            .record(section.nanos, TimeUnit.NANOSECONDS);
+      }
+    }, executorService);
+
+    return section;
+  }
+
+  private void putNextCursor(Map<String, String> nextCursors, String name,
+      CursorPageDto<?> page) {
+    if (page.getNextCursor() != null) {
+      nextCursors.put(name, page.getNextCursor());
+    }
+  }
+
+  /**
+   * Caps the configured parallelism at half of the connection pool, like the rollover, so the
+   * dashboard can't hold the connections the other endpoints need.
+   */
+  private int calculateParallelism(int configured, DataSource dataSource) {
+    int parallelism = Math.max(1, configured);
+
+    OptionalInt maximumPoolSize = DataSourcePools.maximumPoolSize(dataSource);
+    if (maximumPoolSize.isPresent()) {
+      parallelism = Math.min(parallelism, Math.max(1, maximumPoolSize.getAsInt() / 2));
+    }
+
+    log.info("Dashboard parallelism: " + parallelism);
+
+    return parallelism;
+  }
+
+  /**
+   * A section being loaded, with the time its task ran once it has finished. The time excludes
+   * the wait in the executor queue.
+   */
+  private static class Section<T> {
+
+    private final String name;
+
+    private CompletableFuture<T> future;
+
+    private volatile long nanos;
+
+    Section(String name) {
+      this.name = name;
+    }
+
+    String name() {
+      return name;
+    }
+
+    CompletableFuture<T> future() {
+      return future;
+    }
+
+    Duration duration() {
+      return Duration.ofNanos(nanos);
+    }
+  }
+}
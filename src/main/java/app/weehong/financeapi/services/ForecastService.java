@@ -0,0 +1,8 @@
+package app.weehong.financeapi.services;
+
+import app.weehong.financeapi.dtos.response.ForecastResponseDto;
+
+public interface ForecastService {
+
+  ForecastResponseDto forecast(String userId);
+}
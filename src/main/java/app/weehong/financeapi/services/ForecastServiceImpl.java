@@ -0,0 +1,36 @@
+package app.weehong.financeapi.services;
+
+import app.weehong.financeapi.dtos.response.ForecastResponseDto;
+import app.weehong.financeapi.repositories.InstallmentRepository;
+import app.weehong.financeapi.utils.ForecastCache;
+import app.weehong.financeapi.utils.StatementDateCalculator;
+import java.time.LocalDate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class ForecastServiceImpl implements ForecastService {
+
+  private final InstallmentRepository installmentRepository;
+
+  private final ForecastCache forecastCache;
+
+  @Autowired
+  public ForecastServiceImpl(InstallmentRepository installmentRepository,
+      ForecastCache forecastCache) {
+    this.installmentRepository = installmentRepository;
+    this.forecastCache = forecastCache;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public ForecastResponseDto forecast(String userId) {
+    LocalDate today = StatementDateCalculator.today();
+
+    return forecastCache.forecast(userId, today,
+        () -> installmentRepository.findForecastRowsByUserId(userId,
+            StatementDateCalculator.activeEndDateAfter(today)),
+        ids -> installmentRepository.findForecastRowsByIdsAndUserId(ids, userId));
+  }
+}
@@ -1,12 +1,12 @@
 package app.weehong.financeapi.services;
 
-import java.util.List;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
 
 public interface GenericService<T, K> {
 
   T create(String userId, K t);
 
-  List<T> all(String userId);
+  CursorPageDto<T> all(String userId, String cursor, Integer limit);
 
   T getById(Long id, String userId);
 
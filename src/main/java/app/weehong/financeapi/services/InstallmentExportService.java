@@ -0,0 +1,18 @@
+package app.weehong.financeapi.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface InstallmentExportService {
+
+  enum Format {
+    NDJSON,
+    CSV
+  }
+
+  /**
+   * Writes every installment of the user, active or not, to the stream as it is read from the
+   * database.
+   */
+  void export(String userId, Format format, OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,112 @@
+package app.weehong.financeapi.services;
+
+import static app.weehong.financeapi.mappers.InstallmentMapper.mapInstallmentExportRowToInstallmentExportDto;
+
+import app.weehong.financeapi.dtos.response.InstallmentExportDto;
+import app.weehong.financeapi.projections.installments.InstallmentExportRow;
+import app.weehong.financeapi.repositories.InstallmentRepository;
+import app.weehong.financeapi.utils.CsvWriter;
+import app.weehong.financeapi.utils.NdjsonWriter;
+import app.weehong.financeapi.utils.StatementDateCalculator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Exports installments from a database cursor. Each row is mapped from a scalar projection and
+ * written before the next one is fetched, so the heap used does not depend on the number of
+ * installments. The output is flushed after the first row and then every {@link #FLUSH_INTERVAL}
+ * rows.
+ */
+@Slf4j
+@Service
+public class InstallmentExportServiceImpl implements InstallmentExportService {
+
+  private static final int FLUSH_INTERVAL = 500;
+
+  private final InstallmentRepository installmentRepository;
+
+  private final ObjectMapper objectMapper;
+
+  private final TransactionTemplate readOnlyTransactionTemplate;
+
+  @Autowired
+  public InstallmentExportServiceImpl(InstallmentRepository installmentRepository,
+      ObjectMapper objectMapper,
+      PlatformTransactionManager transactionManager) {
+    this.installmentRepository = installmentRepository;
+    this.objectMapper = objectMapper;
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+  }
+
+  @Override
+  public void export(String userId, Format format, OutputStream outputStream) throws IOException {
+    LocalDate today = StatementDateCalculator.today();
+
+    if (format == Format.CSV) {
+      try (CsvWriter writer = new CsvWriter(outputStream)) {
+        writer.writeRecord("id", "name", "total_amount", "tenure", "leftover_tenure",
+            "price_per_month", "start_date", "end_date", "is_active", "card_id", "card_name",
+            "created_at");
+        forEachRow(userId, writer, row -> {
+          InstallmentExportDto export = mapInstallmentExportRowToInstallmentExportDto(row, today);
+          writer.writeRecord(export.getId(), export.getName(), plain(export.getTotalAmount()),
+              export.getTenure(), export.getLeftoverTenure(), plain(export.getPricePerMonth()),
+              export.getStartDate(), export.getEndDate(), export.getIsActive(),
+              export.getCardId(), export.getCardName(), export.getCreatedAt());
+        });
+      }
+    } else {
+      try (NdjsonWriter writer = new NdjsonWriter(objectMapper, outputStream)) {
+        forEachRow(userId, writer, row ->
+            writer.write(mapInstallmentExportRowToInstallmentExportDto(row, today)));
+      }
+    }
+  }
+
+  private void forEachRow(String userId, Flushable output, RowWriter rowWriter)
+      throws IOException {
+    try {
+      readOnlyTransactionTemplate.executeWithoutResult(status -> {
+        try (Stream<InstallmentExportRow> rows = installmentRepository.streamAllByUserId(userId)) {
+          int written = 0;
+
+          for (Iterator<InstallmentExportRow> iterator = rows.iterator(); iterator.hasNext(); ) {
+            rowWriter.write(iterator.next());
+
+            if (written++ % FLUSH_INTERVAL == 0) {
+              output.flush();
+            }
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      log.info("InstallmentExportServiceImpl - forEachRow(): Stopped the export of " + userId
+          + ". " + e.getCause().getMessage());
+      throw e.getCause();
+    }
+  }
+
+  private static String plain(BigDecimal value) {
+    return value == null ? null : value.toPlainString();
+  }
+
+  private interface RowWriter {
+
+    void write(InstallmentExportRow row) throws IOException;
+  }
+}
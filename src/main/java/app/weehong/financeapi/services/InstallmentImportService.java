@@ -0,0 +1,20 @@
+package app.weehong.financeapi.services;
+
+import app.weehong.financeapi.dtos.response.InstallmentBatchResultDto;
+import app.weehong.financeapi.dtos.response.InstallmentImportSummaryDto;
+import app.weehong.financeapi.mappers.InstallmentCsvMapper;
+import app.weehong.financeapi.utils.CsvReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface InstallmentImportService {
+
+  /**
+   * Creates the installments of the remaining records of the reader chunk by chunk and hands the
+   * failed records of every chunk to the consumer before the next chunk is read.
+   */
+  InstallmentImportSummaryDto importCsv(String userId, CsvReader csvReader,
+      InstallmentCsvMapper csvMapper, Consumer<List<InstallmentBatchResultDto>> failureConsumer)
+      throws IOException;
+}
@@ -0,0 +1,183 @@
+package app.weehong.financeapi.services;
+
+import app.weehong.financeapi.configs.InstallmentImportProperties;
+import app.weehong.financeapi.dtos.request.InstallmentRequestDto;
+import app.weehong.financeapi.dtos.response.InstallmentBatchResultDto;
+import app.weehong.financeapi.dtos.response.InstallmentImportSummaryDto;
+import app.weehong.financeapi.dtos.response.InstallmentResponseDto;
+import app.weehong.financeapi.mappers.InstallmentCsvMapper;
+import app.weehong.financeapi.utils.CsvReader;
+import app.weehong.financeapi.utils.CsvReader.MalformedCsvException;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Imports installments from a CSV file in chunks through {@link InstallmentService#createAll}.
+ * The results are indexed by the record number in the file, the header being record 1.
+ */
+@Slf4j
+@Service
+public class InstallmentImportServiceImpl implements InstallmentImportService {
+
+  private final InstallmentService<InstallmentResponseDto, InstallmentRequestDto> installmentService;
+
+  private final InstallmentImportProperties properties;
+
+  private final Validator validator;
+
+  private final EntityManager entityManager;
+
+  @Autowired
+  public InstallmentImportServiceImpl(
+      InstallmentService<InstallmentResponseDto, InstallmentRequestDto> installmentService,
+      InstallmentImportProperties properties,
+      Validator validator,
+      EntityManager entityManager) {
+    this.installmentService = installmentService;
+    this.properties = properties;
+    this.validator = validator;
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public InstallmentImportSummaryDto importCsv(String userId, CsvReader csvReader,
+      InstallmentCsvMapper csvMapper, Consumer<List<InstallmentBatchResultDto>> failureConsumer)
+      throws IOException {
+    Chunk chunk = new Chunk(Math.max(1, properties.getChunkSize()));
+    long imported = 0;
+    long failed = 0;
+    String message = null;
+
+    try {
+      for (List<String> record = csvReader.next(); record != null; record = csvReader.next()) {
+        if (record.size() == 1 && record.get(0).isBlank()) {
+          continue;
+        }
+
+        chunk.add(Math.toIntExact(csvReader.getRecordNumber()), record, csvMapper);
+
+        if (chunk.isFull()) {
+          imported += createChunk(userId, chunk);
+          failed += chunk.failures.size();
+          failureConsumer.accept(List.copyOf(chunk.failures));
+          chunk.clear();
+        }
+      }
+    } catch (MalformedCsvException e) {
+      log.warn("InstallmentImportServiceImpl - importCsv(): Stopped the import at a malformed record. "
+          + e.getMessage());
+      message = e.getMessage();
+    }
+
+    imported += createChunk(userId, chunk);
+    failed += chunk.failures.size();
+    if (!chunk.failures.isEmpty()) {
+      failureConsumer.accept(List.copyOf(chunk.failures));
+    }
+
+    return InstallmentImportSummaryDto.builder()
+        .imported(imported)
+        .failed(failed)
+        .message(message)
+        .build();
+  }
+
+  private long createChunk(String userId, Chunk chunk) {
+    if (chunk.installmentRequestDtos.isEmpty()) {
+      return 0;
+    }
+
+    List<InstallmentBatchResultDto> results = installmentService.createAll(userId,
+        chunk.installmentRequestDtos);
+    // The created installments are not needed anymore, keep the request's persistence context
+    // from growing with the file.
+    entityManager.clear();
+
+    long created = 0;
+    for (InstallmentBatchResultDto result : results) {
+      if (result.isSuccess()) {
+        created++;
+      } else {
+        result.setIndex(chunk.indexes.get(result.getIndex()));
+        chunk.failures.add(result);
+      }
+    }
+    chunk.failures.sort(Comparator.comparingInt(InstallmentBatchResultDto::getIndex));
+
+    return created;
+  }
+
+  private class Chunk {
+
+    private final int size;
+
+    private final List<Integer> indexes;
+
+    private final List<InstallmentRequestDto> installmentRequestDtos;
+
+    private final List<InstallmentBatchResultDto> failures = new ArrayList<>();
+
+    private int records;
+
+    private Chunk(int size) {
+      this.size = size;
+      this.indexes = new ArrayList<>(size);
+      this.installmentRequestDtos = new ArrayList<>(size);
+    }
+
+    private void add(int index, List<String> record, InstallmentCsvMapper csvMapper) {
+      records++;
+
+      InstallmentRequestDto installmentRequestDto;
+      try {
+        installmentRequestDto = csvMapper.mapRecordToInstallmentRequestDto(record);
+      } catch (IllegalArgumentException e) {
+        failures.add(failedResult(index, e.getMessage()));
+        return;
+      }
+
+      Set<ConstraintViolation<InstallmentRequestDto>> violations =
+          validator.validate(installmentRequestDto);
+      if (!violations.isEmpty()) {
+        failures.add(failedResult(index, violations.stream()
+            .map(ConstraintViolation::getMessage)
+            .sorted()
+            .collect(Collectors.joining(", "))));
+        return;
+      }
+
+      indexes.add(index);
+      installmentRequestDtos.add(installmentRequestDto);
+    }
+
+    private boolean isFull() {
+      return records >= size;
+    }
+
+    private void clear() {
+      records = 0;
+      indexes.clear();
+      installmentRequestDtos.clear();
+      failures.clear();
+    }
+  }
+
+  private static InstallmentBatchResultDto failedResult(int index, String message) {
+    return InstallmentBatchResultDto.builder()
+        .index(index)
+        .isSuccess(false)
+        .message(message)
+        .build();
+  }
+}
@@ -0,0 +1,12 @@
+package app.weehong.financeapi.services;
+
+import java.time.LocalDate;
+
+public interface InstallmentRolloverService {
+
+  int rollover(LocalDate date);
+
+  int catchUp(LocalDate date);
+
+  int reconcile();
+}
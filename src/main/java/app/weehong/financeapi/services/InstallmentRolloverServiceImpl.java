@@ -0,0 +1,473 @@
+package app.weehong.financeapi.services;
+
+import app.weehong.financeapi.configs.InstallmentRolloverProperties;
+import app.weehong.financeapi.projections.cards.DueCardProjection;
+import app.weehong.financeapi.repositories.AmountRepository;
+import app.weehong.financeapi.repositories.CardRepository;
+import app.weehong.financeapi.repositories.InstallmentRepository;
+import app.weehong.financeapi.repositories.RolloverWatermarkRepository;
+import app.weehong.financeapi.services.SchedulerLockService.Lease;
+import app.weehong.financeapi.utils.DashboardCache;
+import app.weehong.financeapi.utils.DataSourcePools;
+import app.weehong.financeapi.utils.StatementDateCalculator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@PropertySource("classpath:application.yaml")
+@Service
+public class InstallmentRolloverServiceImpl implements InstallmentRolloverService {
+
+  private static final String ROLLOVER_LOCK = "installment-rollover";
+
+  private static final String CATCH_UP_LOCK = "installment-catch-up";
+
+  private static final String RECONCILE_LOCK = "installment-reconcile";
+
+  private static final String DAILY_RUN = "daily";
+
+  private static final String CATCH_UP_RUN = "catch-up";
+
+  private static final String RECONCILE_RUN = "reconcile";
+
+  private final InstallmentRepository installmentRepository;
+
+  private final CardRepository cardRepository;
+
+  private final AmountRepository amountRepository;
+
+  private final RolloverWatermarkRepository rolloverWatermarkRepository;
+
+  private final SchedulerLockService schedulerLockService;
+
+  private final DashboardCache dashboardCache;
+
+  private final InstallmentRolloverProperties properties;
+
+  private final MeterRegistry meterRegistry;
+
+  private final CronExpression cronExpression;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final TransactionTemplate readOnlyTransactionTemplate;
+
+  private final ExecutorService executorService;
+
+  private final int parallelism;
+
+  @Autowired
+  public InstallmentRolloverServiceImpl(InstallmentRepository installmentRepository,
+      CardRepository cardRepository,
+      AmountRepository amountRepository,
+      RolloverWatermarkRepository rolloverWatermarkRepository,
+      SchedulerLockService schedulerLockService,
+      DashboardCache dashboardCache,
+      InstallmentRolloverProperties properties,
+      MeterRegistry meterRegistry,
+      PlatformTransactionManager transactionManager,
+      DataSource dataSource,
+      @Value("${installment.cron}") String cron) {
+    this.installmentRepository = installmentRepository;
+    this.cardRepository = cardRepository;
+    this.amountRepository = amountRepository;
+    this.rolloverWatermarkRepository = rolloverWatermarkRepository;
+    this.schedulerLockService = schedulerLockService;
+    this.dashboardCache = dashboardCache;
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+    this.cronExpression = CronExpression.parse(cron);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.parallelism = calculateParallelism(properties.getParallelism(), dataSource);
+    this.executorService = Executors.newFixedThreadPool(parallelism,
+        new CustomizableThreadFactory("installment-rollover-"));
+  }
+
+  @Scheduled(cron = "${installment.cron}")
+  public void updateLeftoverTenureSchedule() {
+    LocalDateTime startedAt = LocalDateTime.now();
+    log.debug("updateLeftoverTenureSchedule(): " + startedAt);
+    if (runAsLeader(DAILY_RUN, ROLLOVER_LOCK,
+        leadership -> rollover(StatementDateCalculator.today(), leadership))) {
+      recordOverruns(startedAt, LocalDateTime.now());
+    }
+  }
+
+  @Scheduled(cron = "${installment.catch-up-cron}")
+  public void catchUpSchedule() {
+    log.info("catchUpSchedule(): " + LocalDateTime.now());
+    runAsLeader(CATCH_UP_RUN, CATCH_UP_LOCK,
+        leadership -> catchUp(StatementDateCalculator.today(), leadership));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void catchUpOnStartup() {
+    log.info("catchUpOnStartup(): " + LocalDateTime.now());
+    runAsLeader(CATCH_UP_RUN, CATCH_UP_LOCK,
+        leadership -> catchUp(StatementDateCalculator.today(), leadership));
+  }
+
+  @Scheduled(cron = "${installment.reconcile-cron}")
+  public void reconcileSchedule() {
+    log.info("reconcileSchedule(): " + LocalDateTime.now());
+    runAsLeader(RECONCILE_RUN, RECONCILE_LOCK, this::reconcile);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executorService.shutdown();
+  }
+
+  /**
+   * Rolls over the cards whose statement date falls on {@code date}. Every processed card gets a
+   * watermark in the same transaction as its installments, so repeated runs on the same day only
+   * pick up the cards that have not been rolled over yet.
+   */
+  @Override
+  public int rollover(LocalDate date) {
+    return rollover(date, Leadership.UNCONTESTED);
+  }
+
+  /**
+   * Rolls over every card whose watermark is behind its latest statement date on or before
+   * {@code date}, e.g. after the service was down over a statement date. The leftover tenure is
+   * derived from the end date, so a card that missed several statement dates converges in one pass.
+   */
+  @Override
+  public int catchUp(LocalDate date) {
+    return catchUp(date, Leadership.UNCONTESTED);
+  }
+
+  /**
+   * Recomputes the leftover of every amount from its active installments and corrects the ones
+   * that drifted from the incremental updates, e.g. after a manual change in the database.
+   */
+  @Override
+  public int reconcile() {
+    return reconcile(Leadership.UNCONTESTED);
+  }
+
+  /**
+   * Runs the task only on the replica holding the lock of its job. Each job has its own lock, so a
+   * long rollover does not make the catch-up or the reconcile skip their turn on another replica.
+   * The task renews the lease before every chunk, so a replica that lost the lease stops writing
+   * instead of racing the new leader, and fences every chunk transaction with the lease's fencing
+   * token. Returns whether the task ran on this replica.
+   */
+  private boolean runAsLeader(String run, String lockName,
+      Function<Leadership, Integer> task) {
+    Optional<Lease> lease = schedulerLockService.tryAcquire(lockName);
+
+    if (lease.isEmpty()) {
+      log.debug("Skipped the " + run + " run, " + lockName + " is held by another replica");
+      meterRegistry.counter("installment.rollover.skips", "run", run, "reason", "lock-held")
+          .increment();
+      return false;
+    }
+
+    try {
+      task.apply(new Leadership(() -> schedulerLockService.renew(lease.get()),
+          () -> schedulerLockService.fence(lease.get())));
+      return true;
+    } finally {
+      schedulerLockService.release(lease.get());
+    }
+  }
+
+  private int rollover(LocalDate date, Leadership leadership) {
+    Map<LocalDate, List<Integer>> statementDates = Map.of(date,
+        StatementDateCalculator.dueStatementDates(date));
+
+    return rollover(DAILY_RUN, statementDates, date, leadership);
+  }
+
+  private int catchUp(LocalDate date, Leadership leadership) {
+    return rollover(CATCH_UP_RUN, StatementDateCalculator.latestStatementDates(date), date,
+        leadership);
+  }
+
+  private int reconcile(Leadership leadership) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    int reconciled = 0;
+    List<Long> amountIds = amountRepository.findIdsAfter(0L,
+        PageRequest.of(0, properties.getChunkSize()));
+
+    while (!amountIds.isEmpty() && leadership.renew().getAsBoolean()) {
+      List<Long> chunk = amountIds;
+      Integer corrected = transactionTemplate.execute(status -> {
+        if (!leadership.fence().getAsBoolean()) {
+          return null;
+        }
+        amountRepository.lockAllByIds(chunk);
+        dashboardCache.evictAmounts(chunk);
+        return amountRepository.reconcileLeftoverAmountByIds(chunk);
+      });
+      reconciled += corrected == null ? 0 : corrected;
+
+      amountIds = amountRepository.findIdsAfter(chunk.get(chunk.size() - 1),
+          PageRequest.of(0, properties.getChunkSize()));
+    }
+
+    meterRegistry.counter("installment.rollover.amounts.reconciled").increment(reconciled);
+    sample.stop(Timer.builder("installment.rollover.duration")
+        .tag("run", RECONCILE_RUN)
+        .publishPercentileHistogram()
+        .register(meterRegistry));
+
+    if (reconciled > 0) {
+      log.warn("InstallmentRolloverServiceImpl - reconcile(): Corrected the leftover of "
+          + reconciled + " amounts");
+    }
+
+    return reconciled;
+  }
+
+  /**
+   * Counts the triggers of the daily cron that fired while the run was still in progress. The
+   * scheduler drops them, so a growing count means the run no longer fits in its period.
+   */
+  private void recordOverruns(LocalDateTime startedAt, LocalDateTime finishedAt) {
+    LocalDateTime next = cronExpression.next(startedAt);
+
+    while (next != null && next.isBefore(finishedAt)) {
+      meterRegistry.counter("installment.rollover.overruns").increment();
+      next = cronExpression.next(next);
+    }
+  }
+
+  /**
+   * Caps the configured parallelism at half of the connection pool, after setting one connection
+   * aside for the cursor over the due cards, so a large statement date leaves the other half to
+   * the API.
+   */
+  private int calculateParallelism(int configured, DataSource dataSource) {
+    int parallelism = Math.max(1, configured);
+
+    OptionalInt maximumPoolSize = DataSourcePools.maximumPoolSize(dataSource);
+    if (maximumPoolSize.isPresent()) {
+      parallelism = Math.min(parallelism, Math.max(1, (maximumPoolSize.getAsInt() - 1) / 2));
+    }
+
+    log.info("Installment rollover parallelism: " + parallelism);
+
+    return parallelism;
+  }
+
+  /**
+   * Streams the due cards of every statement date through a forward-only cursor and hands them to
+   * the executor in windows of about {@code chunkSize} cards, so memory does not grow with the
+   * number of due cards. At most {@code parallelism} windows are in flight; the cursor waits for a
+   * free slot before it reads further. Windows are only cut between two amounts, so no two windows
+   * recalculate the same amount and they can run concurrently. All windows of a statement date
+   * finish before the next one starts, because the cards of one amount can have different
+   * statement dates.
+   */
+  private int rollover(String run, Map<LocalDate, List<Integer>> statementDates, LocalDate date,
+      Leadership leadership) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    AtomicInteger updated = new AtomicInteger();
+    Semaphore permits = new Semaphore(parallelism);
+
+    statementDates.forEach((statementDate, days) -> {
+      try {
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+          try (Stream<DueCardProjection> dueCards = cardRepository.streamDueCardsByStatementDates(
+              days, statementDate)) {
+            Chunk chunk = new Chunk(run, statementDate);
+            int due = 0;
+
+            for (Iterator<DueCardProjection> iterator = dueCards.iterator();
+                iterator.hasNext(); due++) {
+              DueCardProjection dueCard = iterator.next();
+
+              if (chunk.size() >= properties.getChunkSize()
+                  && !Objects.equals(chunk.lastAmountId, dueCard.getAmountId())) {
+                dispatch(chunk, date, permits, updated, leadership);
+                chunk = new Chunk(run, statementDate);
+              }
+              chunk.add(dueCard);
+            }
+
+            if (chunk.size() > 0) {
+              dispatch(chunk, date, permits, updated, leadership);
+            }
+
+            meterRegistry.counter("installment.rollover.cards.due", "run", run)
+                .increment(due);
+          }
+        });
+      } finally {
+        permits.acquireUninterruptibly(parallelism);
+        permits.release(parallelism);
+      }
+    });
+
+    sample.stop(Timer.builder("installment.rollover.duration")
+        .tag("run", run)
+        .publishPercentileHistogram()
+        .register(meterRegistry));
+
+    return updated.get();
+  }
+
+  private void dispatch(Chunk chunk, LocalDate date, Semaphore permits, AtomicInteger updated,
+      Leadership leadership) {
+    permits.acquireUninterruptibly();
+
+    try {
+      executorService.execute(() -> {
+        try {
+          updated.addAndGet(rolloverChunk(chunk, date, leadership));
+        } catch (RuntimeException e) {
+          meterRegistry.counter("installment.rollover.chunk.failures", "run", chunk.run)
+              .increment();
+          log.error("InstallmentRolloverServiceImpl - rollover(): Chunk failed, it will be retried "
+              + "by the next run. " + e.getMessage());
+        } finally {
+          permits.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private int rolloverChunk(Chunk chunk, LocalDate date, Leadership leadership) {
+    if (!leadership.renew().getAsBoolean()) {
+      meterRegistry.counter("installment.rollover.skips", "run", chunk.run, "reason",
+          "lease-lost").increment();
+      return 0;
+    }
+
+    Timer.Sample sample = Timer.start(meterRegistry);
+    Integer updated = transactionTemplate.execute(status -> {
+      // A replica that paused after the renewal may have lost the lease since; the fence is
+      // checked in the transaction of the writes and keeps the lease until they commit.
+      if (!leadership.fence().getAsBoolean()) {
+        meterRegistry.counter("installment.rollover.skips", "run", chunk.run, "reason",
+            "lease-lost").increment();
+        return null;
+      }
+      int rows = installmentRepository.rolloverLeftoverTenureByCardIds(chunk.cardIds,
+          StatementDateCalculator.activeEndDateAfter(date),
+          date.getYear() * 12 + date.getMonthValue(), date.getDayOfMonth());
+      int deactivated = installmentRepository.deactivateCompletedInstallmentsByCardIds(
+          chunk.cardIds);
+      // Locked after the installments, in the order the request writes take their locks.
+      amountRepository.lockAllByIds(chunk.amountIds);
+      amountRepository.recalculateLeftoverAmountByIds(chunk.amountIds);
+      dashboardCache.evictAmounts(chunk.amountIds);
+      rolloverWatermarkRepository.advanceByCardIds(chunk.cardIds, chunk.statementDate);
+      rolloverWatermarkRepository.insertByCardIds(chunk.cardIds, chunk.statementDate);
+      meterRegistry.counter("installment.rollover.installments.deactivated", "run", chunk.run)
+          .increment(deactivated);
+      return rows;
+    });
+
+    if (updated == null) {
+      return 0;
+    }
+
+    sample.stop(Timer.builder("installment.rollover.chunk.duration")
+        .tag("run", chunk.run)
+        .publishPercentileHistogram()
+        .register(meterRegistry));
+    meterRegistry.counter("installment.rollover.installments.updated", "run", chunk.run)
+        .increment(updated);
+    recordLag(chunk);
+
+    log.debug("Rolled over " + updated + " installments of " + chunk.cardIds.size() + " cards and "
+        + chunk.amountIds.size() + " amounts");
+
+    return updated;
+  }
+
+  /**
+   * Records how long after the start of its statement date a chunk was rolled over. A daily run
+   * that keeps up stays within the cron period; catch-up runs show how far behind a card was.
+   */
+  private void recordLag(Chunk chunk) {
+    Timer.builder("installment.rollover.lag")
+        .tag("run", chunk.run)
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(Duration.between(
+            chunk.statementDate.atStartOfDay(StatementDateCalculator.ZONE_ID),
+            ZonedDateTime.now(StatementDateCalculator.ZONE_ID)));
+  }
+
+  /**
+   * The lease a task runs under. {@code renew} extends it between chunks; {@code fence} checks the
+   * fencing token inside a chunk transaction and holds the lease until that transaction ends.
+   */
+  private record Leadership(BooleanSupplier renew, BooleanSupplier fence) {
+
+    private static final Leadership UNCONTESTED = new Leadership(() -> true, () -> true);
+  }
+
+  private static class Chunk {
+
+    private final String run;
+
+    private final LocalDate statementDate;
+
+    private final Set<Long> cardIds = new LinkedHashSet<>();
+
+    private final Set<Long> amountIds = new LinkedHashSet<>();
+
+    private Long lastAmountId;
+
+    private Chunk(String run, LocalDate statementDate) {
+      this.run = run;
+      this.statementDate = statementDate;
+    }
+
+    private void add(DueCardProjection dueCard) {
+      cardIds.add(dueCard.getCardId());
+      amountIds.add(dueCard.getAmountId());
+      lastAmountId = dueCard.getAmountId();
+    }
+
+    private int size() {
+      return cardIds.size();
+    }
+  }
+}
@@ -1,9 +1,12 @@
 package app.weehong.financeapi.services;
 
+import app.weehong.financeapi.dtos.response.InstallmentBatchResultDto;
 import app.weehong.financeapi.dtos.response.InstallmentResponseDto;
 import java.util.List;
 
 public interface InstallmentService<T, K> extends GenericService<T, K> {
 
+  List<InstallmentBatchResultDto> createAll(String userId, List<K> t);
+
   List<InstallmentResponseDto> totalPricePerMonth(String userId);
 }
@@ -1,41 +1,49 @@
 package app.weehong.financeapi.services;
 
+import static app.weehong.financeapi.mappers.InstallmentMapper.mapInstallmentRowToInstallmentResponseDto;
 import static app.weehong.financeapi.mappers.InstallmentMapper.mapInstallmentToInstallmentResponseDto;
 
 import app.weehong.financeapi.dtos.request.InstallmentRequestDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
+import app.weehong.financeapi.dtos.response.InstallmentBatchResultDto;
 import app.weehong.financeapi.dtos.response.InstallmentResponseDto;
 import app.weehong.financeapi.entities.Card;
 import app.weehong.financeapi.entities.Installment;
 import app.weehong.financeapi.entities.User;
-import app.weehong.financeapi.mappers.InstallmentMapper;
+import app.weehong.financeapi.projections.installments.InstallmentRow;
 import app.weehong.financeapi.repositories.AmountRepository;
 import app.weehong.financeapi.repositories.CardRepository;
 import app.weehong.financeapi.repositories.InstallmentRepository;
 import app.weehong.financeapi.repositories.UserRepository;
+import app.weehong.financeapi.utils.AmountWriteCoordinator;
+import app.weehong.financeapi.utils.DashboardCache;
+import app.weehong.financeapi.utils.ForecastCache;
 import app.weehong.financeapi.utils.InstallmentCalculator;
-import jakarta.transaction.Transactional;
+import app.weehong.financeapi.utils.Money;
+import app.weehong.financeapi.utils.PageCursor;
+import app.weehong.financeapi.utils.StatementDateCalculator;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.Period;
-import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.PropertySource;
 import org.springframework.http.HttpStatus;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 @Slf4j
-@PropertySource("classpath:application.yaml")
 @Service
 public class InstallmentServiceImpl implements
     InstallmentService<InstallmentResponseDto, InstallmentRequestDto> {
@@ -50,203 +58,377 @@ public class InstallmentServiceImpl implements
 
   private final InstallmentCalculator installmentCalculator;
 
+  private final AmountWriteCoordinator amountWriteCoordinator;
+
+  private final DashboardCache dashboardCache;
+
+  private final ForecastCache forecastCache;
+
   @Autowired
   public InstallmentServiceImpl(InstallmentRepository installmentRepository,
       CardRepository cardRepository,
       AmountRepository amountRepository,
       UserRepository userRepository,
-      InstallmentCalculator installmentCalculator) {
+      InstallmentCalculator installmentCalculator,
+      AmountWriteCoordinator amountWriteCoordinator,
+      DashboardCache dashboardCache,
+      ForecastCache forecastCache) {
     this.installmentRepository = installmentRepository;
     this.cardRepository = cardRepository;
     this.amountRepository = amountRepository;
     this.userRepository = userRepository;
     this.installmentCalculator = installmentCalculator;
+    this.amountWriteCoordinator = amountWriteCoordinator;
+    this.dashboardCache = dashboardCache;
+    this.forecastCache = forecastCache;
   }
 
   @Override
-  @Transactional
   public InstallmentResponseDto create(String userId, InstallmentRequestDto installmentRequestDto) {
     Optional<User> user = userRepository.findById(userId);
-    Optional<Card> card = cardRepository.findByUserId(installmentRequestDto.getCardId(), userId);
+    Optional<Card> card = cardRepository.findCachedByUserId(installmentRequestDto.getCardId(),
+        userId);
 
     if (!user.isPresent() || !card.isPresent()) {
       throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
     }
 
-    LocalDate startDate = calculateStartDate(installmentRequestDto.getStartDate(),
-        card.get().getStatementDate());
-    LocalDate endDate = calculateEndDate(startDate, installmentRequestDto.getTenure());
-    int leftoverTenure = Math.toIntExact(calculateLeftoverTenure(endDate));
+    return amountWriteCoordinator.execute(card.get().getAmount().getId(), () -> {
+      Installment installment = installmentRepository.save(
+          buildInstallment(card.get(), installmentRequestDto));
+
+      if (installment.getId() != null) {
+        amountRepository.subtractLeftoverAmountById(installment.getCard().getAmount().getId(),
+            installmentCalculator.calculateOutstandingAmount(
+                toMoney(installment.getPricePerMonth()), installment.getLeftoverTenure())
+                .toBigDecimal());
+        evictDashboard(userId, installment.getCard().getAmount().getId(),
+            List.of(installment.getId()));
+      } else {
+        throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+            "InstallmentServiceImpl - create(): Unable to create installment.");
+      }
 
-    Installment installment = new Installment();
-    installment.setCard(card.get());
-    installment.setName(installmentRequestDto.getName());
-    installment.setStartDate(startDate);
-    installment.setEndDate(endDate);
-    installment.setTenure(installmentRequestDto.getTenure());
-    installment.setLeftoverTenure(leftoverTenure);
-    installment.setTotalAmount(installmentRequestDto.getTotalAmount());
-    installment.setPricePerMonth(calculatePricePerMonth(installmentRequestDto.getTotalAmount(),
-        installmentRequestDto.getTenure()));
-    installment.setActive(leftoverTenure > 0);
-    installment = installmentRepository.save(installment);
-
-    if (installment.getId() != null) {
-      BigDecimal totalAmount = installmentRepository.SumInstallmentByAmountId(
-          installmentRequestDto.getCardId(), userId);
-      BigDecimal leftoverAmount = installmentCalculator.calculateLeftoverAmount(totalAmount,
-          installment.getCard().getAmount().getInitialAmount());
-      amountRepository.updateLeftoverAmountById(installment.getCard().getAmount().getId(),
-          leftoverAmount);
-    } else {
-      throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
-          "InstallmentServiceImpl - create(): Unable to create installment.");
+      return mapInstallmentToInstallmentResponseDto(installment);
+    });
+  }
+
+  /**
+   * Creates the installments with one card lookup for the whole batch and one leftover update per
+   * amount. Items are validated against the cards, names and tenures up front; an item that fails
+   * does not stop the others, and the result of every item is returned at its index. When the
+   * write of an amount still fails, e.g. on a name taken by a concurrent request, its items are
+   * written one by one so that only the failing ones are reported. The installments are built
+   * inside the write, so a retry after a conflict saves fresh entities rather than the ones the
+   * failed attempt already gave an id and a version.
+   */
+  @Override
+  public List<InstallmentBatchResultDto> createAll(String userId,
+      List<InstallmentRequestDto> installmentRequestDtos) {
+    Optional<User> user = userRepository.findById(userId);
+
+    if (!user.isPresent()) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
+    }
+
+    Map<Long, Card> cards = cardRepository.findAllByIdsAndUserId(installmentRequestDtos.stream()
+            .map(InstallmentRequestDto::getCardId)
+            .collect(Collectors.toSet()), userId)
+        .stream()
+        .collect(Collectors.toMap(Card::getId, Function.identity()));
+    Set<String> names = new HashSet<>(installmentRepository.findNamesIn(
+        installmentRequestDtos.stream()
+            .map(InstallmentRequestDto::getName)
+            .collect(Collectors.toSet())));
+
+    InstallmentBatchResultDto[] results =
+        new InstallmentBatchResultDto[installmentRequestDtos.size()];
+    Map<Long, Map<Integer, InstallmentRequestDto>> requestsByAmount = new LinkedHashMap<>();
+
+    for (int index = 0; index < installmentRequestDtos.size(); index++) {
+      InstallmentRequestDto installmentRequestDto = installmentRequestDtos.get(index);
+      Card card = cards.get(installmentRequestDto.getCardId());
+
+      if (card == null) {
+        results[index] = failedResult(index, "Card ID doesn't exist.");
+      } else if (installmentRequestDto.getTenure() == null
+          || installmentRequestDto.getTenure() <= 0) {
+        results[index] = failedResult(index, "Tenure must be greater than 0.");
+      } else if (!names.add(installmentRequestDto.getName())) {
+        results[index] = failedResult(index, "Name already exists.");
+      } else {
+        requestsByAmount.computeIfAbsent(card.getAmount().getId(),
+                amountId -> new LinkedHashMap<>())
+            .put(index, installmentRequestDto);
+      }
     }
 
-    return mapInstallmentToInstallmentResponseDto(installment);
+    requestsByAmount.forEach((amountId, requests) -> {
+      try {
+        createForAmount(userId, amountId, cards, requests, results);
+      } catch (RuntimeException e) {
+        if (requests.size() == 1) {
+          log.error("InstallmentServiceImpl - createAll(): Unable to create the installment of "
+              + "amount " + amountId + ". " + e.getMessage());
+          requests.keySet().forEach(index -> results[index] = failedResult(index,
+              "Unable to create installment."));
+          return;
+        }
+
+        log.warn("InstallmentServiceImpl - createAll(): Unable to create the installments of "
+            + "amount " + amountId + " together, creating them one by one. " + e.getMessage());
+        requests.forEach((index, request) -> {
+          try {
+            createForAmount(userId, amountId, cards, Map.of(index, request), results);
+          } catch (RuntimeException itemException) {
+            log.error("InstallmentServiceImpl - createAll(): Unable to create the installment at "
+                + index + " of amount " + amountId + ". " + itemException.getMessage());
+            results[index] = failedResult(index, "Unable to create installment.");
+          }
+        });
+      }
+    });
+
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Creates the requested installments of one amount in one write, with one leftover update, and
+   * fills in their results. Nothing is created when the write fails.
+   */
+  private void createForAmount(String userId, Long amountId, Map<Long, Card> cards,
+      Map<Integer, InstallmentRequestDto> requests, InstallmentBatchResultDto[] results) {
+    Map<Integer, Installment> installments = amountWriteCoordinator.execute(amountId, () -> {
+      Map<Integer, Installment> built = new LinkedHashMap<>();
+      requests.forEach((index, request) -> built.put(index,
+          buildInstallment(cards.get(request.getCardId()), request)));
+
+      installmentRepository.saveAll(built.values());
+      evictDashboard(userId, amountId, built.values()
+          .stream()
+          .map(Installment::getId)
+          .toList());
+      amountRepository.subtractLeftoverAmountById(amountId,
+          built.values()
+              .stream()
+              .map(installment -> installmentCalculator.calculateOutstandingAmount(
+                  toMoney(installment.getPricePerMonth()), installment.getLeftoverTenure()))
+              .reduce(Money.ZERO, Money::plus)
+              .toBigDecimal());
+      return built;
+    });
+
+    installments.forEach((index, installment) -> results[index] =
+        InstallmentBatchResultDto.builder()
+            .index(index)
+            .isSuccess(true)
+            .data(mapInstallmentToInstallmentResponseDto(installment))
+            .build());
   }
 
   @Override
-  public List<InstallmentResponseDto> all(String userId) {
-    Iterable<Installment> installments = installmentRepository.findAllByUserId(userId);
-    return StreamSupport.stream(installments.spliterator(), false)
-        .map(InstallmentMapper::mapInstallmentToInstallmentResponseDto)
-        .collect(Collectors.toList());
+  @Transactional(readOnly = true)
+  public CursorPageDto<InstallmentResponseDto> all(String userId, String cursor,
+      Integer limit) {
+    LocalDate today = StatementDateCalculator.today();
+    LocalDate endDateAfter = StatementDateCalculator.activeEndDateAfter(today);
+    int pageLimit = PageCursor.limit(limit);
+    // The cursor is on (end date, id), the order in which the leftover tenure runs out.
+    LocalDate afterEndDate = cursor == null ? endDateAfter
+        : PageCursor.decode(cursor, 2, keys -> LocalDate.parse(keys[0]));
+    Long afterId = cursor == null ? 0L
+        : PageCursor.decode(cursor, 2, keys -> Long.valueOf(keys[1]));
+
+    List<InstallmentRow> installments = installmentRepository.findAllByUserId(userId,
+        endDateAfter, afterEndDate, afterId, PageCursor.pageable(pageLimit));
+    return PageCursor.page(installments, pageLimit,
+        installment -> PageCursor.encode(installment.endDate(), installment.id()),
+        installment -> mapInstallmentRowToInstallmentResponseDto(installment, today),
+        InstallmentResponseDto::getIsActive);
   }
 
   @Override
+  @Transactional(readOnly = true)
   public InstallmentResponseDto getById(Long id, String userId) {
-    Optional<Installment> installment = installmentRepository.findByUserId(id, userId);
+    Optional<Installment> installment = findActiveByUserId(id, userId);
 
     if (!installment.isPresent()) {
       throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
     }
 
-    return mapInstallmentToInstallmentResponseDto(installment.get());
+    return mapInstallmentToInstallmentResponseDto(installment.get(),
+        StatementDateCalculator.today());
   }
 
   @Override
-  @Transactional
   public InstallmentResponseDto update(Long id, String userId,
       InstallmentRequestDto installmentRequestDto) {
-    Optional<Installment> installment = installmentRepository.findByUserId(id, userId);
-
-    if (!installment.isPresent()) {
-      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
-    }
+    return amountWriteCoordinator.execute(findAmountId(id, userId), () -> {
+      Optional<Installment> installment = findActiveByUserId(id, userId);
 
-    LocalDate startDate = calculateStartDate(installmentRequestDto.getStartDate(),
-        installment.get().getCard().getStatementDate());
-    LocalDate endDate = calculateEndDate(startDate, installmentRequestDto.getTenure());
+      if (!installment.isPresent()) {
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
+      }
 
-    installment.get().setName(installmentRequestDto.getName());
-    installment.get().setTotalAmount(installmentRequestDto.getTotalAmount());
-    installment.get().setTenure(installmentRequestDto.getTenure());
-    installment.get().setLeftoverTenure(Math.toIntExact(calculateLeftoverTenure(endDate)));
-    installment.get().setPricePerMonth(
-        calculatePricePerMonth(installmentRequestDto.getTotalAmount(),
-            installmentRequestDto.getTenure()));
-    installment.get().setStartDate(startDate);
-    installment.get().setEndDate(endDate);
-
-    Installment updatedInstallment = installmentRepository.save(installment.get());
-
-    BigDecimal totalAmount = installmentRepository.SumInstallmentByAmountId(
-        installmentRequestDto.getCardId(), userId);
-    BigDecimal leftoverAmount = installmentCalculator.calculateLeftoverAmount(totalAmount,
-        installment.get().getCard().getAmount().getInitialAmount());
-    amountRepository.updateLeftoverAmountById(installment.get().getCard().getAmount().getId(),
-        leftoverAmount);
-
-    return mapInstallmentToInstallmentResponseDto(updatedInstallment);
+      Money outstandingAmount = installmentCalculator.calculateOutstandingAmount(
+          toMoney(installment.get().getPricePerMonth()), installment.get().getLeftoverTenure());
+      LocalDate startDate = calculateStartDate(installmentRequestDto.getStartDate(),
+          installment.get().getCard().getStatementDate());
+      LocalDate endDate = calculateEndDate(startDate, installmentRequestDto.getTenure());
+      int leftoverTenure = Math.toIntExact(calculateLeftoverTenure(endDate,
+          installment.get().getCard().getStatementDate()));
+
+      installment.get().setName(installmentRequestDto.getName());
+      installment.get().setTotalAmount(installmentRequestDto.getTotalAmount());
+      installment.get().setTenure(installmentRequestDto.getTenure());
+      installment.get().setLeftoverTenure(leftoverTenure);
+      installment.get().setPricePerMonth(
+          calculatePricePerMonth(installmentRequestDto.getTotalAmount(),
+              installmentRequestDto.getTenure()));
+      installment.get().setStartDate(startDate);
+      installment.get().setEndDate(endDate);
+      installment.get().setActive(leftoverTenure > 0);
+
+      Installment updatedInstallment = installmentRepository.save(installment.get());
+
+      amountRepository.subtractLeftoverAmountById(
+          updatedInstallment.getCard().getAmount().getId(),
+          installmentCalculator.calculateOutstandingAmount(
+                  toMoney(updatedInstallment.getPricePerMonth()),
+                  updatedInstallment.getLeftoverTenure())
+              .minus(outstandingAmount)
+              .toBigDecimal());
+      evictDashboard(userId, updatedInstallment.getCard().getAmount().getId(),
+          List.of(id));
+
+      return mapInstallmentToInstallmentResponseDto(updatedInstallment);
+    });
   }
 
   @Override
   public boolean delete(Long id, String userId) {
-    Optional<Installment> installment = installmentRepository.findByUserId(id, userId);
+    amountWriteCoordinator.execute(findAmountId(id, userId), () -> {
+      Optional<Installment> installment = findActiveByUserId(id, userId);
 
-    if (!installment.isPresent()) {
-      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
-    }
+      if (!installment.isPresent()) {
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
+      }
 
-    installmentRepository.deleteById(id);
+      Money outstandingAmount = installmentCalculator.calculateOutstandingAmount(
+          toMoney(installment.get().getPricePerMonth()), installment.get().getLeftoverTenure());
 
-    installment = installmentRepository.findById(id);
+      installmentRepository.deleteById(id);
+      evictDashboard(userId, installment.get().getCard().getAmount().getId(), List.of(id));
+      return amountRepository.subtractLeftoverAmountById(
+          installment.get().getCard().getAmount().getId(),
+          outstandingAmount.negate().toBigDecimal());
+    });
+
+    Optional<Installment> installment = installmentRepository.findById(id);
     return !installment.isPresent();
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<InstallmentResponseDto> totalPricePerMonth(String userId) {
-    return installmentRepository.SumInstallmentGroupByBank(userId)
+    LocalDate today = StatementDateCalculator.today();
+    return dashboardCache.totalPricePerMonth(userId, today,
+        () -> calculateTotalPricePerMonth(userId, today));
+  }
+
+  private List<InstallmentResponseDto> calculateTotalPricePerMonth(String userId,
+      LocalDate today) {
+    Map<String, BigDecimal> totalAmountByBank = new LinkedHashMap<>();
+
+    installmentRepository.findPricePerMonthByUserId(userId,
+            StatementDateCalculator.activeEndDateAfter(today))
+        .stream()
+        .filter(unit -> StatementDateCalculator.leftoverTenureOn(unit.getEndDate(),
+            unit.getStatementDate(), today) > 0)
+        .forEach(unit -> totalAmountByBank.merge(unit.getName(), unit.getPricePerMonth(),
+            BigDecimal::add));
+
+    return totalAmountByBank.entrySet()
         .stream()
         .map(unit -> {
           InstallmentResponseDto holder = new InstallmentResponseDto();
-          holder.setTotalAmount(unit.getTotalAmount());
-          holder.setName(unit.getName());
+          holder.setTotalAmount(unit.getValue());
+          holder.setName(unit.getKey());
           holder.setIsActive(null);
           return holder;
         })
         .collect(Collectors.toList());
   }
 
-  @Transactional
-  @Scheduled(cron = "${installment.cron}")
-  public void updateLeftoverTenureSchedule() {
-    log.info("updateLeftoverTenureSchedule(): " + LocalDateTime.now());
-
-    List<Installment> installmentStream = installmentRepository.findAllValidInstallments()
-        .stream()
-        .map(installment -> {
-          Installment holder = new Installment();
-
-          holder.setId(installment.getId());
-          holder.setName(installment.getName());
-          holder.setEndDate(installment.getEndDate());
-          holder.setLeftoverTenure(installment.getLeftoverTenure());
-          holder.setPricePerMonth(installment.getPricePerMonth());
-          holder.setCard(installment.getCard());
-
-          return holder;
-        }).toList();
-
-    installmentStream.forEach((unit) -> {
-      LocalDate currentDate = LocalDate.now(ZoneId.of("Asia/Singapore"));
-      LocalDate statementDate = LocalDate.of(currentDate.getYear(), currentDate.getMonth(),
-          unit.getCard().getStatementDate());
+  /**
+   * Evicts the dashboard reads a write to the installments of the amount changes, and marks the
+   * installments as changed in the forecast. Called inside the write's transaction, both run once
+   * it has committed.
+   */
+  private void evictDashboard(String userId, Long amountId, Collection<Long> installmentIds) {
+    dashboardCache.evictTotalPricePerMonth(userId);
+    dashboardCache.evictAmounts(List.of(amountId));
+    forecastCache.installmentsChanged(userId, installmentIds);
+  }
 
-      if (currentDate.equals(statementDate)) {
-        Optional<Installment> holder = installmentRepository.findById(unit.getId());
+  private Installment buildInstallment(Card card, InstallmentRequestDto installmentRequestDto) {
+    LocalDate startDate = calculateStartDate(installmentRequestDto.getStartDate(),
+        card.getStatementDate());
+    LocalDate endDate = calculateEndDate(startDate, installmentRequestDto.getTenure());
+    int leftoverTenure = Math.toIntExact(calculateLeftoverTenure(endDate,
+        card.getStatementDate()));
 
-        int leftoverTenure = Math.toIntExact(calculateLeftoverTenure(unit.getEndDate()));
+    Installment installment = new Installment();
+    installment.setCard(card);
+    installment.setName(installmentRequestDto.getName());
+    installment.setStartDate(startDate);
+    installment.setEndDate(endDate);
+    installment.setTenure(installmentRequestDto.getTenure());
+    installment.setLeftoverTenure(leftoverTenure);
+    installment.setTotalAmount(installmentRequestDto.getTotalAmount());
+    installment.setPricePerMonth(calculatePricePerMonth(installmentRequestDto.getTotalAmount(),
+        installmentRequestDto.getTenure()));
+    installment.setActive(leftoverTenure > 0);
 
-        log.info(
-            "Updating statement date of " + unit.getName() + " from " + unit.getLeftoverTenure()
-                + " to " + leftoverTenure);
+    return installment;
+  }
 
-        if (holder.isPresent()) {
-          holder.get().setLeftoverTenure(leftoverTenure);
-          holder.get().setActive(leftoverTenure > 0);
+  private InstallmentBatchResultDto failedResult(int index, String message) {
+    return InstallmentBatchResultDto.builder()
+        .index(index)
+        .isSuccess(false)
+        .message(message)
+        .build();
+  }
 
-          installmentRepository.save(holder.get());
-        }
+  /**
+   * Finds an installment of the user that is still active today, judged by its end date like the
+   * list endpoint rather than by the flag the rollover stores.
+   */
+  private Optional<Installment> findActiveByUserId(Long id, String userId) {
+    return installmentRepository.findByUserId(id, userId,
+        StatementDateCalculator.activeEndDateAfter(StatementDateCalculator.today()));
+  }
 
-        amountRepository.updateLeftoverAmountById(unit.getCard().getAmount().getId(),
-            unit.getPricePerMonth().multiply(BigDecimal.valueOf(leftoverTenure)));
-      }
-    });
+  private Long findAmountId(Long id, String userId) {
+    return findActiveByUserId(id, userId)
+        .map(installment -> installment.getCard().getAmount().getId())
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+            "Record ID doesn't exist."));
   }
 
   private BigDecimal calculatePricePerMonth(BigDecimal totalAmount, int tenure) {
-    return totalAmount.divide(BigDecimal.valueOf(tenure), 2, RoundingMode.HALF_UP);
+    return InstallmentCalculator.calculatePricePerMonth(Money.of(totalAmount), tenure)
+        .toBigDecimal();
   }
 
-  private Long calculateLeftoverTenure(LocalDate endDate) {
-    LocalDate current = LocalDate.now();
-    long months = ChronoUnit.MONTHS.between(current, endDate);
+  private static Money toMoney(BigDecimal amount) {
+    return amount == null ? null : Money.of(amount);
+  }
 
-    return endDate.getDayOfMonth() == current.getDayOfMonth()
-        ? months - 1
-        : months;
+  private long calculateLeftoverTenure(LocalDate endDate, int statementDate) {
+    return StatementDateCalculator.leftoverTenureOn(endDate, statementDate,
+        StatementDateCalculator.today());
   }
 
   private LocalDate calculateStartDate(LocalDate startDate, int statementDate) {
@@ -0,0 +1,27 @@
+package app.weehong.financeapi.services;
+
+import java.util.Optional;
+
+public interface SchedulerLockService {
+
+  Optional<Lease> tryAcquire(String name);
+
+  boolean renew(Lease lease);
+
+  /**
+   * Checks the lease inside the caller's transaction and keeps it from changing hands until that
+   * transaction ends. Writes that run after a successful check can't commit once a new leader
+   * holds the lock, however long the replica paused before them.
+   */
+  boolean fence(Lease lease);
+
+  void release(Lease lease);
+
+  /**
+   * A lease on a scheduler lock. The fencing token is incremented every time the lock changes
+   * hands, so a replica whose lease expired cannot renew or release the lease of its successor.
+   */
+  record Lease(String name, String owner, long fencingToken) {
+
+  }
+}
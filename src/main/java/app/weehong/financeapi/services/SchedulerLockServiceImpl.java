@@ -0,0 +1,142 @@
+package app.weehong.financeapi.services;
+
+import app.weehong.financeapi.configs.SchedulerLockProperties;
+import app.weehong.financeapi.entities.SchedulerLock;
+import app.weehong.financeapi.repositories.SchedulerLockRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Leader election backed by the scheduler_locks table. A replica holds a lock while its
+ * locked_until lies in the future; the lock is taken over with a conditional update, which works
+ * the same on PostgreSQL and H2.
+ */
+@Slf4j
+@Service
+public class SchedulerLockServiceImpl implements SchedulerLockService {
+
+  private static final LocalDateTime UNLOCKED = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+  private final SchedulerLockRepository schedulerLockRepository;
+
+  private final SchedulerLockProperties properties;
+
+  private final MeterRegistry meterRegistry;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final String owner;
+
+  @Autowired
+  public SchedulerLockServiceImpl(SchedulerLockRepository schedulerLockRepository,
+      SchedulerLockProperties properties,
+      MeterRegistry meterRegistry,
+      PlatformTransactionManager transactionManager) {
+    this.schedulerLockRepository = schedulerLockRepository;
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.owner = hostName() + "-" + UUID.randomUUID();
+  }
+
+  @Override
+  public Optional<Lease> tryAcquire(String name) {
+    createIfAbsent(name);
+
+    LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+    Optional<Lease> lease = transactionTemplate.execute(status -> {
+      if (schedulerLockRepository.acquire(name, owner, now,
+          now.plus(properties.getLeaseDuration())) == 0) {
+        return Optional.empty();
+      }
+      return schedulerLockRepository.findById(name)
+          .map(lock -> new Lease(name, owner, lock.getFencingToken()));
+    });
+
+    boolean acquired = lease != null && lease.isPresent();
+    meterRegistry.counter("scheduler.lock.acquisitions", "lock", name, "result",
+        acquired ? "acquired" : "busy").increment();
+
+    return acquired ? lease : Optional.empty();
+  }
+
+  @Override
+  public boolean renew(Lease lease) {
+    LocalDateTime lockedUntil = LocalDateTime.now(ZoneOffset.UTC)
+        .plus(properties.getLeaseDuration());
+    Integer renewed = transactionTemplate.execute(status ->
+        schedulerLockRepository.renew(lease.name(), lease.owner(), lease.fencingToken(),
+            lockedUntil));
+
+    boolean held = renewed != null && renewed > 0;
+    meterRegistry.counter("scheduler.lock.renewals", "lock", lease.name(), "result",
+        held ? "renewed" : "lost").increment();
+
+    if (!held) {
+      log.warn("SchedulerLockServiceImpl - renew(): Lost the lease of " + lease.name()
+          + " with fencing token " + lease.fencingToken());
+    }
+
+    return held;
+  }
+
+  @Override
+  public boolean fence(Lease lease) {
+    boolean held = schedulerLockRepository.findHeld(lease.name(), lease.owner(),
+        lease.fencingToken()).isPresent();
+
+    if (!held) {
+      meterRegistry.counter("scheduler.lock.fences", "lock", lease.name(), "result", "lost")
+          .increment();
+      log.warn("SchedulerLockServiceImpl - fence(): Lost the lease of " + lease.name()
+          + " with fencing token " + lease.fencingToken());
+    }
+
+    return held;
+  }
+
+  @Override
+  public void release(Lease lease) {
+    transactionTemplate.execute(status ->
+        schedulerLockRepository.renew(lease.name(), lease.owner(), lease.fencingToken(),
+            LocalDateTime.now(ZoneOffset.UTC)));
+  }
+
+  private void createIfAbsent(String name) {
+    if (schedulerLockRepository.existsById(name)) {
+      return;
+    }
+
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        SchedulerLock lock = new SchedulerLock();
+        lock.setName(name);
+        lock.setFencingToken(0L);
+        lock.setLockedUntil(UNLOCKED);
+        schedulerLockRepository.save(lock);
+      });
+    } catch (DataAccessException e) {
+      log.info("SchedulerLockServiceImpl - createIfAbsent(): " + name
+          + " has been created by another replica.");
+    }
+  }
+
+  private String hostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return "unknown";
+    }
+  }
+}
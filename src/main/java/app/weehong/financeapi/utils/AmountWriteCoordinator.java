@@ -0,0 +1,76 @@
+package app.weehong.financeapi.utils;
+
+import app.weehong.financeapi.configs.AmountWriteProperties;
+import jakarta.persistence.EntityManager;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Runs the writes that change the leftover of an amount. Writes to the same amount wait for each
+ * other on this instance behind a striped lock, so they rarely conflict; a write that still loses
+ * a version check, e.g. against another replica or the rollover, is retried in a new transaction.
+ */
+@Slf4j
+@Component
+public class AmountWriteCoordinator {
+
+  private final AmountWriteProperties properties;
+
+  private final EntityManager entityManager;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final Lock[] locks;
+
+  @Autowired
+  public AmountWriteCoordinator(AmountWriteProperties properties,
+      EntityManager entityManager,
+      PlatformTransactionManager transactionManager) {
+    this.properties = properties;
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.locks = new Lock[Math.max(1, properties.getStripes())];
+
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Runs the write in its own transaction while holding the lock of the amount. The write must
+   * read what it changes itself, and the persistence context is cleared before a retry, so that
+   * the retry works on fresh rows even when the request keeps its entity manager open.
+   */
+  public <T> T execute(Long amountId, Supplier<T> write) {
+    Lock lock = locks[Math.floorMod(Objects.hashCode(amountId), locks.length)];
+    lock.lock();
+
+    try {
+      for (int attempt = 1; ; attempt++) {
+        try {
+          return transactionTemplate.execute(status -> write.get());
+        } catch (OptimisticLockingFailureException e) {
+          if (attempt >= properties.getMaxAttempts()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "The record was changed by another request, please try again.");
+          }
+          log.info("AmountWriteCoordinator - execute(): Retrying the write of amount " + amountId
+              + " after a conflict, attempt " + attempt);
+          entityManager.clear();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package app.weehong.financeapi.utils;
+
+import app.weehong.financeapi.dtos.response.ForecastResponseDto;
+import app.weehong.financeapi.dtos.response.ForecastSeriesDto;
+import app.weehong.financeapi.projections.installments.InstallmentForecastRow;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Monthly cash flow of a user as of a date, in total and per card, bank and amount. Every series
+ * is a {@code long[]} of cents indexed by month, so adding an installment is a loop of primitive
+ * additions; amounts only become {@link BigDecimal} in {@link #toResponseDto()}.
+ *
+ * <p>An installment is billed on the statement dates that bring its leftover tenure down, i.e.
+ * on the next {@link StatementDateCalculator#leftoverTenureOn leftover tenure} statement dates
+ * after the date, minus those before its start. What each installment added is kept, so a changed
+ * installment can be taken out and put back without rebuilding the forecast. The class is not
+ * thread-safe.
+ */
+public class CashFlowForecast {
+
+  private final LocalDate date;
+
+  private final YearMonth firstMonth;
+
+  private final int months;
+
+  private final long[] total;
+
+  private final Map<Long, Series> cards = new TreeMap<>();
+
+  private final Map<Long, Series> banks = new TreeMap<>();
+
+  private final Map<Long, Series> amounts = new TreeMap<>();
+
+  private final Map<Long, Billing> billings = new HashMap<>();
+
+  public CashFlowForecast(LocalDate date, int months) {
+    this.date = date;
+    this.firstMonth = YearMonth.from(date);
+    this.months = months;
+    this.total = new long[months];
+  }
+
+  public LocalDate getDate() {
+    return date;
+  }
+
+  /**
+   * Adds the installment, replacing what it added before if it is already in the forecast.
+   */
+  public void put(InstallmentForecastRow row) {
+    remove(row.id());
+
+    long leftoverTenure = StatementDateCalculator.leftoverTenureOn(row.endDate(),
+        row.statementDate(), date);
+    long payments = Math.min(leftoverTenure, row.tenure());
+    if (payments <= 0) {
+      return;
+    }
+
+    // The next statement date is in this month or the next one.
+    YearMonth nextStatementMonth = YearMonth.from(
+        StatementDateCalculator.latestStatementDate(row.statementDate(), date)).plusMonths(1);
+    long offset = ChronoUnit.MONTHS.between(firstMonth, nextStatementMonth);
+    int from = (int) Math.min(months, offset + leftoverTenure - payments);
+    int to = (int) Math.min(months, offset + leftoverTenure);
+    if (from >= to) {
+      return;
+    }
+
+    Billing billing = new Billing(row.cardId(), row.bankId(), row.amountId(),
+        Money.of(row.pricePerMonth()).cents(), from, to);
+    billings.put(row.id(), billing);
+
+    add(total, billing, 1);
+    add(series(cards, row.cardId(), row.cardName()).cents, billing, 1);
+    add(series(banks, row.bankId(), row.bankName()).cents, billing, 1);
+    add(series(amounts, row.amountId(), row.amountName()).cents, billing, 1);
+  }
+
+  /**
+   * Takes out what the installment added, if anything.
+   */
+  public void remove(Long installmentId) {
+    Billing billing = billings.remove(installmentId);
+    if (billing == null) {
+      return;
+    }
+
+    add(total, billing, -1);
+    subtract(cards, billing.cardId(), billing);
+    subtract(banks, billing.bankId(), billing);
+    subtract(amounts, billing.amountId(), billing);
+  }
+
+  public ForecastResponseDto toResponseDto() {
+    List<YearMonth> forecastMonths = new ArrayList<>(months);
+    for (int month = 0; month < months; month++) {
+      forecastMonths.add(firstMonth.plusMonths(month));
+    }
+
+    return ForecastResponseDto.builder()
+        .months(forecastMonths)
+        .total(toAmounts(total))
+        .cards(toSeriesDtos(cards))
+        .banks(toSeriesDtos(banks))
+        .amounts(toSeriesDtos(amounts))
+        .build();
+  }
+
+  private Series series(Map<Long, Series> series, Long id, String name) {
+    Series found = series.computeIfAbsent(id, key -> new Series(new long[months]));
+    found.name = name;
+    found.installments++;
+    return found;
+  }
+
+  private void subtract(Map<Long, Series> series, Long id, Billing billing) {
+    Series found = series.get(id);
+    add(found.cents, billing, -1);
+
+    if (--found.installments == 0) {
+      series.remove(id);
+    }
+  }
+
+  private static void add(long[] cents, Billing billing, int sign) {
+    long amount = sign * billing.cents();
+    for (int month = billing.from(); month < billing.to(); month++) {
+      cents[month] += amount;
+    }
+  }
+
+  private static List<BigDecimal> toAmounts(long[] cents) {
+    List<BigDecimal> amounts = new ArrayList<>(cents.length);
+    for (long cent : cents) {
+      amounts.add(Money.ofCents(cent).toBigDecimal());
+    }
+    return amounts;
+  }
+
+  private static List<ForecastSeriesDto> toSeriesDtos(Map<Long, Series> series) {
+    return series.entrySet()
+        .stream()
+        .map(entry -> ForecastSeriesDto.builder()
+            .id(entry.getKey())
+            .name(entry.getValue().name)
+            .amounts(toAmounts(entry.getValue().cents))
+            .build())
+        .toList();
+  }
+
+  private static class Series {
+
+    private final long[] cents;
+
+    private String name;
+
+    private int installments;
+
+    Series(long[] cents) {
+      this.cents = cents;
+    }
+  }
+
+  /**
+   * What an installment added: its price per month in cents over the months [from, to).
+   */
+  private record Billing(Long cardId, Long bankId, Long amountId, long cents, int from, int to) {
+
+  }
+}
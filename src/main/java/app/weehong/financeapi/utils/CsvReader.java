@@ -0,0 +1,141 @@
+package app.weehong.financeapi.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 records one at a time from a reader through a fixed buffer, so a file of any
+ * size is parsed in constant memory. Quoted fields may contain commas, doubled quotes and line
+ * breaks; a record longer than {@link #MAX_RECORD_LENGTH} characters is rejected rather than
+ * buffered.
+ */
+public class CsvReader implements Closeable {
+
+  public static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+  private static final int BUFFER_SIZE = 8 * 1024;
+
+  private final Reader reader;
+
+  private final char[] buffer = new char[BUFFER_SIZE];
+
+  private final StringBuilder field = new StringBuilder();
+
+  private final List<String> record = new ArrayList<>();
+
+  private int position;
+
+  private int limit;
+
+  private long recordNumber;
+
+  public CsvReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Returns the fields of the next record, or null at the end of the input. The returned list is
+   * reused by the next call, so the caller has to copy what it keeps.
+   */
+  public List<String> next() throws IOException {
+    record.clear();
+    field.setLength(0);
+
+    int c = read();
+    if (c == -1) {
+      return null;
+    }
+
+    recordNumber++;
+    int length = 0;
+    boolean quoted = false;
+
+    while (true) {
+      if (++length > MAX_RECORD_LENGTH) {
+        throw new MalformedCsvException("Record " + recordNumber + " is longer than "
+            + MAX_RECORD_LENGTH + " characters.");
+      }
+
+      if (quoted) {
+        if (c == -1) {
+          throw new MalformedCsvException("Record " + recordNumber
+              + " has an unterminated quoted field.");
+        }
+        if (c == '"') {
+          int next = read();
+          if (next == '"') {
+            field.append('"');
+          } else {
+            quoted = false;
+            c = next;
+            continue;
+          }
+        } else {
+          field.append((char) c);
+        }
+      } else if (c == '"' && field.length() == 0) {
+        quoted = true;
+      } else if (c == ',') {
+        record.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\r' || c == '\n' || c == -1) {
+        if (c == '\r' && peek() == '\n') {
+          read();
+        }
+        record.add(field.toString());
+        return record;
+      } else {
+        field.append((char) c);
+      }
+
+      c = read();
+    }
+  }
+
+  /**
+   * Returns the number of the record last returned by {@link #next()}, starting at 1.
+   */
+  public long getRecordNumber() {
+    return recordNumber;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private int read() throws IOException {
+    if (position == limit && !fill()) {
+      return -1;
+    }
+    return buffer[position++];
+  }
+
+  private int peek() throws IOException {
+    if (position == limit && !fill()) {
+      return -1;
+    }
+    return buffer[position];
+  }
+
+  private boolean fill() throws IOException {
+    limit = reader.read(buffer, 0, buffer.length);
+    position = 0;
+
+    if (limit <= 0) {
+      limit = 0;
+      return false;
+    }
+    return true;
+  }
+
+  public static class MalformedCsvException extends IOException {
+
+    public MalformedCsvException(String message) {
+      super(message);
+    }
+  }
+}
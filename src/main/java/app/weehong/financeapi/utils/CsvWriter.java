@@ -0,0 +1,66 @@
+package app.weehong.financeapi.utils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes RFC 4180 records as UTF-8 to a stream, quoting only the fields that need it. Like
+ * {@link NdjsonWriter} it leaves the stream open and only flushes when asked to.
+ */
+public class CsvWriter implements Closeable, Flushable {
+
+  private final Writer writer;
+
+  public CsvWriter(OutputStream outputStream) {
+    this.writer = new BufferedWriter(
+        new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Writes the fields as one record. A null field is written as an empty one.
+   */
+  public void writeRecord(Object... fields) throws IOException {
+    for (int index = 0; index < fields.length; index++) {
+      if (index > 0) {
+        writer.write(',');
+      }
+      if (fields[index] != null) {
+        writeField(fields[index].toString());
+      }
+    }
+    writer.write("\r\n");
+  }
+
+  @Override
+  public void flush() throws IOException {
+    writer.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    writer.flush();
+  }
+
+  private void writeField(String field) throws IOException {
+    boolean quoted = false;
+    for (int index = 0; index < field.length() && !quoted; index++) {
+      char c = field.charAt(index);
+      quoted = c == ',' || c == '"' || c == '\r' || c == '\n';
+    }
+
+    if (!quoted) {
+      writer.write(field);
+      return;
+    }
+
+    writer.write('"');
+    writer.write(field.replace("\"", "\"\""));
+    writer.write('"');
+  }
+}
@@ -0,0 +1,137 @@
+package app.weehong.financeapi.utils;
+
+import app.weehong.financeapi.configs.DashboardCacheProperties;
+import app.weehong.financeapi.dtos.response.AmountResponseDto;
+import app.weehong.financeapi.dtos.response.InstallmentResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through cache of the dashboard reads: the total price per month of a user and the amounts
+ * with their leftovers. The write paths evict what they change once their transaction has
+ * committed, so a read racing the write can't put the old value back after the eviction. Hits,
+ * misses and evictions are published as the Micrometer cache metrics of each cache.
+ *
+ * <p>The total price per month is loaded outside of the cache's map: a pending entry is put in
+ * first and completed by the reader that put it, so the database read holds no lock that other
+ * users' reads or the evictions would wait on. An eviction during the load drops the pending
+ * entry, so the value loaded before the write isn't kept.
+ *
+ * <p>The loaders read from the primary. Writes without a user, such as the rollover, don't hold
+ * anyone's reads on the primary, and a replica that hasn't caught up with them would otherwise
+ * put the old value back right after the eviction.
+ */
+@Component
+public class DashboardCache {
+
+  private final Cache<String, Prices> totalPricePerMonth;
+
+  private final Cache<Long, OwnedAmount> amounts;
+
+  @Autowired
+  public DashboardCache(DashboardCacheProperties properties, MeterRegistry meterRegistry) {
+    this.totalPricePerMonth = Caffeine.newBuilder()
+        .maximumSize(properties.getMaximumSize())
+        .expireAfterWrite(properties.getExpireAfterWrite())
+        .recordStats()
+        .build();
+    this.amounts = Caffeine.newBuilder()
+        .maximumSize(properties.getMaximumSize())
+        .expireAfterWrite(properties.getExpireAfterWrite())
+        .recordStats()
+        .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, totalPricePerMonth,
+        "dashboard.total-price-per-month");
+    CaffeineCacheMetrics.monitor(meterRegistry, amounts, "dashboard.amounts");
+  }
+
+  /**
+   * Returns the total price per month of the user as of the date. The totals only change on a
+   * statement date, so an entry computed for another date is reloaded.
+   */
+  public List<InstallmentResponseDto> totalPricePerMonth(String userId, LocalDate date,
+      Supplier<List<InstallmentResponseDto>> loader) {
+    Prices prices = totalPricePerMonth.getIfPresent(userId);
+
+    if (prices == null || !prices.date().equals(date)) {
+      Prices pending = new Prices(date, new CompletableFuture<>());
+      prices = totalPricePerMonth.asMap().compute(userId, (key, cached) ->
+          cached != null && cached.date().equals(date) ? cached : pending);
+
+      if (prices == pending) {
+        try {
+          pending.prices().complete(List.copyOf(ReplicaRoutingDataSource.readFromPrimary(loader)));
+        } catch (RuntimeException e) {
+          totalPricePerMonth.asMap().remove(userId, pending);
+          pending.prices().completeExceptionally(e);
+          throw e;
+        }
+      }
+    }
+
+    try {
+      return prices.prices().join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+  }
+
+  /**
+   * Returns the amount if it is cached for the user, or loads it. Amounts are cached by id so
+   * that the writes, which only know the amount, can evict them.
+   */
+  public AmountResponseDto amount(Long amountId, String userId,
+      Supplier<AmountResponseDto> loader) {
+    OwnedAmount amount = amounts.get(amountId, key -> new OwnedAmount(userId,
+        ReplicaRoutingDataSource.readFromPrimary(loader)));
+
+    // The loader rejects an amount that belongs to another user.
+    return amount.userId().equals(userId) ? amount.amount() : loader.get();
+  }
+
+  public void evictTotalPricePerMonth(String userId) {
+    afterCommit(() -> totalPricePerMonth.invalidate(userId));
+  }
+
+  public void evictAmounts(Collection<Long> amountIds) {
+    afterCommit(() -> amounts.invalidateAll(amountIds.stream()
+        .filter(Objects::nonNull)
+        .toList()));
+  }
+
+  private void afterCommit(Runnable eviction) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      eviction.run();
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        eviction.run();
+      }
+    });
+  }
+
+  private record Prices(LocalDate date, CompletableFuture<List<InstallmentResponseDto>> prices) {
+
+  }
+
+  private record OwnedAmount(String userId, AmountResponseDto amount) {
+
+  }
+}
@@ -0,0 +1,25 @@
+package app.weehong.financeapi.utils;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.SQLException;
+import java.util.OptionalInt;
+import javax.sql.DataSource;
+
+public class DataSourcePools {
+
+  /**
+   * Returns the maximum size of the Hikari pool behind the data source. When the data source
+   * routes to a replica, outside a transaction this is the pool of the primary.
+   */
+  public static OptionalInt maximumPoolSize(DataSource dataSource) {
+    try {
+      if (dataSource.isWrapperFor(HikariDataSource.class)) {
+        return OptionalInt.of(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize());
+      }
+    } catch (SQLException e) {
+      // Not a pool this can size against.
+    }
+
+    return OptionalInt.empty();
+  }
+}
@@ -0,0 +1,154 @@
+package app.weehong.financeapi.utils;
+
+import app.weehong.financeapi.configs.ForecastProperties;
+import app.weehong.financeapi.dtos.response.ForecastResponseDto;
+import app.weehong.financeapi.projections.installments.InstallmentForecastRow;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache of the cash-flow forecast of each user. A write to installments only marks them as
+ * changed once its transaction has committed, and the next read reloads just those installments
+ * into the cached forecast. Writes that rename or move cards, banks or amounts evict the forecast
+ * instead, and a forecast computed for another date is rebuilt since its months have shifted.
+ *
+ * <p>A forecast is built outside of the cache's map: a pending entry is put in first and completed
+ * by the reader that put it, so the build holds no lock that other users' reads would wait on.
+ * Writes that commit during the build mark the pending entry, and the next read reloads them.
+ *
+ * <p>Like the dashboard caches, the forecast is loaded from the primary, so a lagging replica
+ * can't fill the shared cache with installments from before a write.
+ */
+@Component
+public class ForecastCache {
+
+  private final Cache<String, Entry> forecasts;
+
+  private final int months;
+
+  @Autowired
+  public ForecastCache(ForecastProperties properties, MeterRegistry meterRegistry) {
+    this.forecasts = Caffeine.newBuilder()
+        .maximumSize(properties.getMaximumSize())
+        .expireAfterWrite(properties.getExpireAfterWrite())
+        .recordStats()
+        .build();
+    this.months = properties.getMonths();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, forecasts, "forecast");
+  }
+
+  /**
+   * Returns the forecast of the user as of the date. The loader returns all the installments
+   * that may still be billed; the changed loader returns the given installments, leaving out the
+   * ones that were deleted.
+   */
+  public ForecastResponseDto forecast(String userId, LocalDate date,
+      Supplier<List<InstallmentForecastRow>> loader,
+      Function<Collection<Long>, List<InstallmentForecastRow>> changedLoader) {
+    Entry entry = forecasts.getIfPresent(userId);
+
+    if (entry == null || !entry.date.equals(date)) {
+      Entry pending = new Entry(date);
+      entry = forecasts.asMap().compute(userId, (key, cached) ->
+          cached != null && cached.date.equals(date) ? cached : pending);
+
+      if (entry == pending) {
+        try {
+          pending.forecast.complete(build(date, ReplicaRoutingDataSource.readFromPrimary(loader)));
+        } catch (RuntimeException e) {
+          forecasts.asMap().remove(userId, pending);
+          pending.forecast.completeExceptionally(e);
+          throw e;
+        }
+      }
+    }
+
+    CashFlowForecast forecast;
+    try {
+      forecast = entry.forecast.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+
+    synchronized (entry) {
+      if (!entry.changed.isEmpty()) {
+        Set<Long> changed = Set.copyOf(entry.changed);
+        entry.changed.clear();
+
+        changed.forEach(forecast::remove);
+        ReplicaRoutingDataSource.readFromPrimary(() -> changedLoader.apply(changed))
+            .forEach(forecast::put);
+      }
+
+      return forecast.toResponseDto();
+    }
+  }
+
+  public void installmentsChanged(String userId, Collection<Long> installmentIds) {
+    List<Long> ids = installmentIds.stream()
+        .filter(Objects::nonNull)
+        .toList();
+
+    // Also marks a forecast still being built, which may have missed the write.
+    afterCommit(() -> forecasts.asMap().computeIfPresent(userId, (key, entry) -> {
+      synchronized (entry) {
+        entry.changed.addAll(ids);
+      }
+      return entry;
+    }));
+  }
+
+  public void evict(String userId) {
+    afterCommit(() -> forecasts.invalidate(userId));
+  }
+
+  private CashFlowForecast build(LocalDate date, List<InstallmentForecastRow> rows) {
+    CashFlowForecast forecast = new CashFlowForecast(date, months);
+    rows.forEach(forecast::put);
+    return forecast;
+  }
+
+  private void afterCommit(Runnable update) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      update.run();
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        update.run();
+      }
+    });
+  }
+
+  private static class Entry {
+
+    private final LocalDate date;
+
+    private final CompletableFuture<CashFlowForecast> forecast = new CompletableFuture<>();
+
+    private final Set<Long> changed = new HashSet<>();
+
+    Entry(LocalDate date) {
+      this.date = date;
+    }
+  }
+}
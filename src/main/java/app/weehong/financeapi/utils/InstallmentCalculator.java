@@ -1,15 +1,25 @@
 package app.weehong.financeapi.utils;
 
-import java.math.BigDecimal;
 import org.springframework.stereotype.Component;
 
 @Component
 public class InstallmentCalculator {
 
-  public BigDecimal calculateLeftoverAmount(BigDecimal totalAmount, BigDecimal initialAmount) {
-    if (initialAmount == null) {
-      return initialAmount;
+  /**
+   * Returns the part of an installment that is still owed, i.e. what it takes off the leftover of
+   * its amount.
+   */
+  public Money calculateOutstandingAmount(Money pricePerMonth, Integer leftoverTenure) {
+    if (pricePerMonth == null || leftoverTenure == null) {
+      return Money.ZERO;
     }
-    return initialAmount.subtract(totalAmount);
+    return pricePerMonth.times(leftoverTenure);
+  }
+
+  /**
+   * Returns the price per month of an installment, rounded half up to the cent.
+   */
+  public static Money calculatePricePerMonth(Money totalAmount, int tenure) {
+    return totalAmount.dividedBy(tenure);
   }
 }
@@ -0,0 +1,74 @@
+package app.weehong.financeapi.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money held as a {@code long} of cents. The amounts of this API are all
+ * {@code NUMERIC(10,2)}, so the arithmetic is exact and allocates nothing but the result, where
+ * the same loop over {@link BigDecimal} allocates a scaled value per step. Amounts are converted
+ * with {@link #of(BigDecimal)} and {@link #toBigDecimal()} where they leave or enter the database
+ * and the DTOs.
+ */
+public record Money(long cents) implements Comparable<Money> {
+
+  public static final Money ZERO = new Money(0);
+
+  public static Money ofCents(long cents) {
+    return new Money(cents);
+  }
+
+  /**
+   * Converts an amount with at most two decimal places; anything finer is rejected with an
+   * {@link ArithmeticException} rather than rounded.
+   */
+  public static Money of(BigDecimal amount) {
+    return new Money(amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue()
+        .longValueExact());
+  }
+
+  public Money plus(Money other) {
+    return new Money(Math.addExact(cents, other.cents));
+  }
+
+  public Money minus(Money other) {
+    return new Money(Math.subtractExact(cents, other.cents));
+  }
+
+  public Money times(long multiplier) {
+    return new Money(Math.multiplyExact(cents, multiplier));
+  }
+
+  /**
+   * Divides to the cent, rounding half away from zero, which is what
+   * {@code divide(divisor, 2, RoundingMode.HALF_UP)} gives on the {@link BigDecimal}.
+   */
+  public Money dividedBy(long divisor) {
+    long quotient = cents / divisor;
+    long remainder = Math.abs(cents % divisor);
+
+    if (remainder >= Math.abs(divisor) - remainder) {
+      quotient += (cents < 0) == (divisor < 0) ? 1 : -1;
+    }
+
+    return new Money(quotient);
+  }
+
+  public Money negate() {
+    return new Money(Math.negateExact(cents));
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(cents, 2);
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(cents, other.cents);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+}
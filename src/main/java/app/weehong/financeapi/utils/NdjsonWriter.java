@@ -0,0 +1,38 @@
+package app.weehong.financeapi.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes one JSON document per line to a stream. Nothing is flushed until {@link #flush()} is
+ * called, so a caller writing many small values decides how often they go out on the wire.
+ */
+public class NdjsonWriter implements Closeable, Flushable {
+
+  private final JsonGenerator generator;
+
+  public NdjsonWriter(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+    this.generator = objectMapper.getFactory()
+        .createGenerator(outputStream)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  public void write(Object value) throws IOException {
+    generator.writeObject(value);
+    generator.writeRaw('\n');
+  }
+
+  @Override
+  public void flush() throws IOException {
+    generator.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    generator.close();
+  }
+}
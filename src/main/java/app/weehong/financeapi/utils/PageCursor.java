@@ -0,0 +1,105 @@
+package app.weehong.financeapi.utils;
+
+import app.weehong.financeapi.dtos.response.CursorPageDto;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Keyset pagination helpers. A cursor holds the sort keys of the last row of a page, ending with
+ * its id, and is handed to the client as an opaque URL-safe token. The next page is read with a
+ * {@code (sort key, id) > cursor} condition on the same order, so it costs the same however deep
+ * the client pages.
+ */
+public class PageCursor {
+
+  public static final int DEFAULT_LIMIT = 50;
+
+  public static final int MAX_LIMIT = 200;
+
+  private static final String SEPARATOR = "|";
+
+  public static int limit(Integer limit) {
+    if (limit == null) {
+      return DEFAULT_LIMIT;
+    }
+    if (limit < 1) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be at least 1.");
+    }
+
+    return Math.min(limit, MAX_LIMIT);
+  }
+
+  /**
+   * Returns the page request of a keyset query, which reads one row more than the limit to find
+   * out whether there is a next page.
+   */
+  public static Pageable pageable(int limit) {
+    return PageRequest.of(0, limit + 1);
+  }
+
+  public static String encode(Object... keys) {
+    String cursor = Stream.of(keys)
+        .map(String::valueOf)
+        .collect(Collectors.joining(SEPARATOR));
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes the sort keys of the cursor with the parser. A cursor that was not issued by
+   * {@link #encode(Object...)} for the same keys is rejected with a 400.
+   */
+  public static <T> T decode(String cursor, int size, Function<String[], T> parser) {
+    try {
+      String[] keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+          .split("\\" + SEPARATOR, -1);
+      if (keys.length != size) {
+        throw new IllegalArgumentException("Expected " + size + " keys.");
+      }
+      return parser.apply(keys);
+    } catch (RuntimeException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor is invalid.");
+    }
+  }
+
+  /**
+   * Returns the id of a cursor on the id alone, or 0 for the first page.
+   */
+  public static Long decodeId(String cursor) {
+    return cursor == null ? 0L : decode(cursor, 1, keys -> Long.valueOf(keys[0]));
+  }
+
+  public static <T, R> CursorPageDto<R> page(List<T> rows, int limit,
+      Function<T, String> cursorOf, Function<T, R> mapper) {
+    return page(rows, limit, cursorOf, mapper, item -> true);
+  }
+
+  /**
+   * Builds the page from the rows of a keyset query read with {@link #pageable(int)}. Items left
+   * out by the filter still move the cursor, so such a page can be shorter than the limit while
+   * there are more pages.
+   */
+  public static <T, R> CursorPageDto<R> page(List<T> rows, int limit,
+      Function<T, String> cursorOf, Function<T, R> mapper, Predicate<R> filter) {
+    boolean hasNext = rows.size() > limit;
+    List<T> pageRows = hasNext ? rows.subList(0, limit) : rows;
+
+    return CursorPageDto.<R>builder()
+        .items(pageRows.stream()
+            .map(mapper)
+            .filter(filter)
+            .collect(Collectors.toList()))
+        .nextCursor(hasNext ? cursorOf.apply(pageRows.get(limit - 1)) : null)
+        .build();
+  }
+}
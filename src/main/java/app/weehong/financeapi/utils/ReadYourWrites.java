@@ -0,0 +1,46 @@
+package app.weehong.financeapi.utils;
+
+import app.weehong.financeapi.configs.ReplicaDataSourceProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the users who are writing or have written within the read-your-writes window. Their reads
+ * go to the primary, so they never see the replica from before their own write. The writes are
+ * counted while they run, since a long import can outlast the window.
+ *
+ * <p>The state lives in this instance only. Behind a load balancer without sticky sessions, a
+ * read that another instance serves right after the write goes to the replica unprotected.
+ */
+@Component
+public class ReadYourWrites {
+
+  private final Map<String, Integer> writing = new ConcurrentHashMap<>();
+
+  private final Cache<String, Boolean> written;
+
+  @Autowired
+  public ReadYourWrites(ReplicaDataSourceProperties properties) {
+    this.written = Caffeine.newBuilder()
+        .expireAfterWrite(properties.getReadYourWritesWindow())
+        .build();
+  }
+
+  public void writeStarted(String userId) {
+    writing.merge(userId, 1, Integer::sum);
+  }
+
+  public void writeFinished(String userId) {
+    // Opens the window before the write stops counting, so the user is never left unpinned.
+    written.put(userId, Boolean.TRUE);
+    writing.computeIfPresent(userId, (key, count) -> count == 1 ? null : count - 1);
+  }
+
+  public boolean readsFromPrimary(String userId) {
+    return writing.containsKey(userId) || written.getIfPresent(userId) != null;
+  }
+}
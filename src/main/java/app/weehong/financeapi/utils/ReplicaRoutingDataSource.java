@@ -0,0 +1,70 @@
+package app.weehong.financeapi.utils;
+
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends the read-only transactions of a user to the replica, unless the user has just written,
+ * and everything else to the primary. Transactions without a user stay on the primary, because
+ * the scheduled jobs read what they are about to write.
+ *
+ * <p>The transaction is only known to be read-only once it has begun, so this has to sit behind
+ * a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which fetches the
+ * connection on the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  enum Target {
+    PRIMARY,
+    REPLICA
+  }
+
+  private static final ThreadLocal<Boolean> READING_FROM_PRIMARY = new ThreadLocal<>();
+
+  private final ReadYourWrites readYourWrites;
+
+  public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+      ReadYourWrites readYourWrites) {
+    this.readYourWrites = readYourWrites;
+    setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+  }
+
+  /**
+   * Runs the reads on the primary even in a read-only transaction, for reads whose result is kept
+   * after the replica has caught up. The connection of a transaction is fetched on its first
+   * statement, so the reads must include it.
+   */
+  public static <T> T readFromPrimary(Supplier<T> reads) {
+    if (READING_FROM_PRIMARY.get() != null) {
+      return reads.get();
+    }
+
+    READING_FROM_PRIMARY.set(Boolean.TRUE);
+    try {
+      return reads.get();
+    } finally {
+      READING_FROM_PRIMARY.remove();
+    }
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        || READING_FROM_PRIMARY.get() != null) {
+      return Target.PRIMARY;
+    }
+
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || readYourWrites.readsFromPrimary(authentication.getName())) {
+      return Target.PRIMARY;
+    }
+
+    return Target.REPLICA;
+  }
+}
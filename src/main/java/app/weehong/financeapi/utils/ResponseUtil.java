@@ -1,5 +1,6 @@
 package app.weehong.financeapi.utils;
 
+import app.weehong.financeapi.dtos.response.CursorPageDto;
 import app.weehong.financeapi.dtos.response.GenericResponseDto;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,4 +26,20 @@ public class ResponseUtil {
 
     return ResponseEntity.status(status).body(result);
   }
+
+  /**
+   * Maps a page with its items as the data and the token of the next page next to them, so the
+   * body keeps the shape of an unpaginated list.
+   */
+  public static <T> ResponseEntity ResponseMapping(CursorPageDto<T> page, String message,
+      HttpStatus status) {
+    GenericResponseDto result = GenericResponseDto.builder()
+        .isSuccess(true)
+        .message(message)
+        .data(page.getItems())
+        .nextCursor(page.getNextCursor())
+        .build();
+
+    return ResponseEntity.status(status).body(result);
+  }
 }
@@ -0,0 +1,94 @@
+package app.weehong.financeapi.utils;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class StatementDateCalculator {
+
+  private static final int MAX_STATEMENT_DATE = 31;
+
+  public static final ZoneId ZONE_ID = ZoneId.of("Asia/Singapore");
+
+  public static LocalDate today() {
+    return LocalDate.now(ZONE_ID);
+  }
+
+  /**
+   * Returns the card statement dates that fall on the given date. On the last day of a month the
+   * statement dates that do not exist in that month (e.g. 29-31 in February) are clamped to it.
+   */
+  public static List<Integer> dueStatementDates(LocalDate date) {
+    List<Integer> statementDates = new ArrayList<>();
+    statementDates.add(date.getDayOfMonth());
+
+    if (date.getDayOfMonth() == date.lengthOfMonth()) {
+      for (int day = date.getDayOfMonth() + 1; day <= MAX_STATEMENT_DATE; day++) {
+        statementDates.add(day);
+      }
+    }
+
+    return statementDates;
+  }
+
+  /**
+   * Returns the latest statement date of a card on or before the given date, clamped to the last
+   * day of the month when the month is shorter than the card's statement date.
+   */
+  public static LocalDate latestStatementDate(int statementDate, LocalDate date) {
+    YearMonth month = YearMonth.from(date);
+    LocalDate candidate = month.atDay(Math.min(statementDate, month.lengthOfMonth()));
+
+    if (candidate.isAfter(date)) {
+      month = month.minusMonths(1);
+      candidate = month.atDay(Math.min(statementDate, month.lengthOfMonth()));
+    }
+
+    return candidate;
+  }
+
+  /**
+   * Groups every possible card statement date by its latest statement date on or before the given
+   * date.
+   */
+  public static Map<LocalDate, List<Integer>> latestStatementDates(LocalDate date) {
+    Map<LocalDate, List<Integer>> statementDates = new TreeMap<>();
+
+    for (int day = 1; day <= MAX_STATEMENT_DATE; day++) {
+      statementDates.computeIfAbsent(latestStatementDate(day, date), key -> new ArrayList<>())
+          .add(day);
+    }
+
+    return statementDates;
+  }
+
+  public static long calculateLeftoverTenure(LocalDate endDate, LocalDate current) {
+    long months = ChronoUnit.MONTHS.between(current, endDate);
+
+    return endDate.getDayOfMonth() == current.getDayOfMonth()
+        ? months - 1
+        : months;
+  }
+
+  /**
+   * Returns the leftover tenure of an installment on the given date. The tenure only drops on the
+   * card's statement date, so it is counted from the latest statement date on or before the date.
+   */
+  public static long leftoverTenureOn(LocalDate endDate, int statementDate, LocalDate date) {
+    return Math.max(0,
+        calculateLeftoverTenure(endDate, latestStatementDate(statementDate, date)));
+  }
+
+  /**
+   * Returns a lower bound for the end date of the installments that are still active on the given
+   * date, whatever the card's statement date. Reads narrow on it before checking the exact tenure.
+   */
+  public static LocalDate activeEndDateAfter(LocalDate date) {
+    return date.minusMonths(1);
+  }
+}
@@ -0,0 +1,5 @@
+CREATE TABLE rollover_watermarks
+(
+    card_id             INT PRIMARY KEY REFERENCES cards (id) ON DELETE CASCADE,
+    last_statement_date DATE NOT NULL
+);
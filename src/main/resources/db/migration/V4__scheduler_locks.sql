@@ -0,0 +1,10 @@
+CREATE TABLE scheduler_locks
+(
+    name          VARCHAR PRIMARY KEY,
+    owner         VARCHAR,
+    fencing_token BIGINT    NOT NULL DEFAULT 0,
+    locked_until  TIMESTAMP NOT NULL
+);
+
+INSERT INTO scheduler_locks (name, owner, fencing_token, locked_until)
+VALUES ('installment-rollover', NULL, 0, '1970-01-01 00:00:00');
@@ -0,0 +1 @@
+CREATE INDEX installments_card_id_end_date_idx ON installments (card_id, end_date);
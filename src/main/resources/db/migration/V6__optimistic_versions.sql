@@ -0,0 +1,5 @@
+ALTER TABLE amounts
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE installments
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
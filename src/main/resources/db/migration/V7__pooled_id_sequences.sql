@@ -0,0 +1,6 @@
+-- Hibernate reserves ids in blocks of 50 (pooled optimizer), so the sequences have to step by the
+-- same allocation size. Inserts relying on the column default still draw from the same sequences.
+ALTER SEQUENCE banks_id_seq INCREMENT BY 50;
+ALTER SEQUENCE amounts_id_seq INCREMENT BY 50;
+ALTER SEQUENCE cards_id_seq INCREMENT BY 50;
+ALTER SEQUENCE installments_id_seq INCREMENT BY 50;
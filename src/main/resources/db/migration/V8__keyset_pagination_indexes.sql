@@ -0,0 +1,3 @@
+CREATE INDEX banks_user_id_id_idx ON banks (user_id, id);
+CREATE INDEX amounts_user_id_id_idx ON amounts (user_id, id);
+CREATE INDEX cards_bank_id_id_idx ON cards (bank_id, id);
@@ -0,0 +1,156 @@
+ALTER TABLE users
+    ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
+
+-- Bumps the data version of the users owning the rows changed by a statement. The users are
+-- locked in id order first, so statements touching several users (e.g. the rollover) can't
+-- deadlock on each other.
+CREATE
+    OR REPLACE FUNCTION bump_user_data_version()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    PERFORM 1
+    FROM users
+    WHERE id IN (SELECT user_id FROM changed_rows)
+    ORDER BY id
+        FOR UPDATE;
+
+    UPDATE users
+    SET data_version = data_version + 1
+    WHERE id IN (SELECT user_id FROM changed_rows);
+    RETURN NULL;
+END;
+$$
+    LANGUAGE plpgsql;
+
+CREATE
+    OR REPLACE FUNCTION bump_card_data_version()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    PERFORM 1
+    FROM users
+    WHERE id IN (SELECT b.user_id
+                 FROM changed_rows c
+                          JOIN banks b ON b.id = c.bank_id)
+    ORDER BY id
+        FOR UPDATE;
+
+    UPDATE users
+    SET data_version = data_version + 1
+    WHERE id IN (SELECT b.user_id
+                 FROM changed_rows c
+                          JOIN banks b ON b.id = c.bank_id);
+    RETURN NULL;
+END;
+$$
+    LANGUAGE plpgsql;
+
+CREATE
+    OR REPLACE FUNCTION bump_installment_data_version()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    PERFORM 1
+    FROM users
+    WHERE id IN (SELECT b.user_id
+                 FROM changed_rows i
+                          JOIN cards c ON c.id = i.card_id
+                          JOIN banks b ON b.id = c.bank_id)
+    ORDER BY id
+        FOR UPDATE;
+
+    UPDATE users
+    SET data_version = data_version + 1
+    WHERE id IN (SELECT b.user_id
+                 FROM changed_rows i
+                          JOIN cards c ON c.id = i.card_id
+                          JOIN banks b ON b.id = c.bank_id);
+    RETURN NULL;
+END;
+$$
+    LANGUAGE plpgsql;
+
+CREATE TRIGGER trigger_data_version_insert
+    AFTER INSERT
+    ON banks
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_user_data_version();
+
+CREATE TRIGGER trigger_data_version_update
+    AFTER UPDATE
+    ON banks
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_user_data_version();
+
+CREATE TRIGGER trigger_data_version_delete
+    AFTER DELETE
+    ON banks
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_user_data_version();
+
+CREATE TRIGGER trigger_data_version_insert
+    AFTER INSERT
+    ON amounts
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_user_data_version();
+
+CREATE TRIGGER trigger_data_version_update
+    AFTER UPDATE
+    ON amounts
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_user_data_version();
+
+CREATE TRIGGER trigger_data_version_delete
+    AFTER DELETE
+    ON amounts
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_user_data_version();
+
+CREATE TRIGGER trigger_data_version_insert
+    AFTER INSERT
+    ON cards
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_card_data_version();
+
+CREATE TRIGGER trigger_data_version_update
+    AFTER UPDATE
+    ON cards
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_card_data_version();
+
+CREATE TRIGGER trigger_data_version_delete
+    AFTER DELETE
+    ON cards
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_card_data_version();
+
+CREATE TRIGGER trigger_data_version_insert
+    AFTER INSERT
+    ON installments
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_installment_data_version();
+
+CREATE TRIGGER trigger_data_version_update
+    AFTER UPDATE
+    ON installments
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_installment_data_version();
+
+CREATE TRIGGER trigger_data_version_delete
+    AFTER DELETE
+    ON installments
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_installment_data_version();
@@ -14,7 +14,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import app.weehong.financeapi.dtos.request.AmountRequestDto;
 import app.weehong.financeapi.dtos.response.AmountResponseDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
+import app.weehong.financeapi.repositories.UserRepository;
 import app.weehong.financeapi.services.AmountService;
+import app.weehong.financeapi.utils.ReadYourWrites;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
 import java.util.List;
@@ -45,6 +48,12 @@ public class AmountControllerTest {
   @MockBean
   private AmountService<AmountResponseDto, AmountRequestDto> cardService;
 
+  @MockBean
+  private UserRepository userRepository;
+
+  @MockBean
+  private ReadYourWrites readYourWrites;
+
   @DisplayName("Should returns 401 when token is not provided")
   @Test
   public void getCard_ReturnUnauthorized() throws Exception {
@@ -64,7 +73,10 @@ public class AmountControllerTest {
 
     List<AmountResponseDto> cards = List.of(amountResponseDto);
 
-    when(cardService.all(anyString())).thenReturn(cards);
+    when(cardService.all(anyString(), any(), any()))
+        .thenReturn(CursorPageDto.<AmountResponseDto>builder()
+            .items(cards)
+            .build());
 
     mockMvc.perform(get("/api/v1/amounts")
             .contentType(MediaType.APPLICATION_JSON)
@@ -74,6 +86,7 @@ public class AmountControllerTest {
         .andExpect(jsonPath("$.message").value("Record has fetched successfully"))
         .andExpect(jsonPath("$.data").isArray())
         .andExpect(jsonPath("$.data.length()").value(1))
+        .andExpect(jsonPath("$.next_cursor").doesNotExist())
         .andExpect(jsonPath("$.data[0].id").value(1L))
         .andExpect(jsonPath("$.data[0].name").value("DBS Live Fresh"))
         .andExpect(jsonPath("$.data[0].initial_amount").value(BigDecimal.valueOf(1000.00)))
@@ -3,21 +3,29 @@ package app.weehong.financeapi.controllers;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import app.weehong.financeapi.dtos.request.CardRequestDto;
 import app.weehong.financeapi.dtos.response.CardResponseDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
+import app.weehong.financeapi.repositories.UserRepository;
 import app.weehong.financeapi.services.CardService;
+import app.weehong.financeapi.utils.ReadYourWrites;
+import app.weehong.financeapi.utils.StatementDateCalculator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +50,12 @@ public class CardControllerTest {
   @MockBean
   private CardService<CardResponseDto, CardRequestDto> cardService;
 
+  @MockBean
+  private UserRepository userRepository;
+
+  @MockBean
+  private ReadYourWrites readYourWrites;
+
   @DisplayName("Should returns 401 when token is not provided")
   @Test
   public void getCard_ReturnUnauthorized() throws Exception {
@@ -63,7 +77,11 @@ public class CardControllerTest {
 
     List<CardResponseDto> cards = List.of(cardResponseDto);
 
-    when(cardService.all(anyString())).thenReturn(cards);
+    when(cardService.all(anyString(), any(), any()))
+        .thenReturn(CursorPageDto.<CardResponseDto>builder()
+            .items(cards)
+            .nextCursor("MQ")
+            .build());
 
     mockMvc.perform(get("/api/v1/cards")
             .contentType(MediaType.APPLICATION_JSON)
@@ -73,6 +91,7 @@ public class CardControllerTest {
         .andExpect(jsonPath("$.message").value("Record has fetched successfully"))
         .andExpect(jsonPath("$.data").isArray())
         .andExpect(jsonPath("$.data.length()").value(1))
+        .andExpect(jsonPath("$.next_cursor").value("MQ"))
         .andExpect(jsonPath("$.data[0].id").value(1L))
         .andExpect(jsonPath("$.data[0].name").value("DBS Live Fresh"))
         .andExpect(jsonPath("$.data[0].bank_id").value(1L))
@@ -80,6 +99,46 @@ public class CardControllerTest {
         .andExpect(jsonPath("$.data[0].leftover_amount").value(BigDecimal.valueOf(1000.00)));
   }
 
+  @DisplayName("Should return the data version as the ETag of the cards")
+  @Test
+  public void getCard_ReturnETag_WhenIfNoneMatchIsStale() throws Exception {
+    when(userRepository.findDataVersionById("user")).thenReturn(Optional.of(7L));
+    when(cardService.all(anyString(), any(), any()))
+        .thenReturn(CursorPageDto.<CardResponseDto>builder()
+            .items(List.of())
+            .build());
+
+    mockMvc.perform(get("/api/v1/cards")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_NONE_MATCH, etag(6L))
+            .with(SecurityMockMvcRequestPostProcessors.jwt()))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, etag(7L)))
+        .andExpect(jsonPath("$.data").isArray());
+  }
+
+  @DisplayName("Should return 304 without loading the cards when the ETag still matches")
+  @Test
+  public void getCard_ReturnNotModified_WhenIfNoneMatchIsCurrent() throws Exception {
+    when(userRepository.findDataVersionById("user")).thenReturn(Optional.of(7L));
+
+    mockMvc.perform(get("/api/v1/cards")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_NONE_MATCH, etag(7L))
+            .with(SecurityMockMvcRequestPostProcessors.jwt()))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag(7L)));
+
+    mockMvc.perform(get("/api/v1/cards/1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_NONE_MATCH, etag(7L))
+            .with(SecurityMockMvcRequestPostProcessors.jwt()))
+        .andExpect(status().isNotModified());
+
+    verify(cardService, never()).all(anyString(), any(), any());
+    verify(cardService, never()).getById(anyLong(), anyString());
+  }
+
   @DisplayName("Should returns 401 when token is not provided")
   @Test
   public void getCardById_ReturnUnauthorized() throws Exception {
@@ -374,4 +433,8 @@ public class CardControllerTest {
         .andExpect(
             jsonPath("$.message").value("Record ID doesn't exists"));
   }
-}
\ No newline at end of file
+
+  private static String etag(long dataVersion) {
+    return "\"" + dataVersion + "-" + StatementDateCalculator.today() + "\"";
+  }
+}
@@ -6,29 +6,36 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import app.weehong.financeapi.configs.DashboardCacheProperties;
 import app.weehong.financeapi.dtos.request.AmountRequestDto;
 import app.weehong.financeapi.dtos.response.AmountResponseDto;
 import app.weehong.financeapi.entities.Amount;
 import app.weehong.financeapi.entities.User;
+import app.weehong.financeapi.projections.amounts.AmountRow;
 import app.weehong.financeapi.repositories.AmountRepository;
-import app.weehong.financeapi.repositories.InstallmentRepository;
 import app.weehong.financeapi.repositories.UserRepository;
-import app.weehong.financeapi.utils.InstallmentCalculator;
+import app.weehong.financeapi.utils.AmountWriteCoordinator;
+import app.weehong.financeapi.utils.DashboardCache;
+import app.weehong.financeapi.utils.ForecastCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,13 +45,17 @@ public class AmountServiceImplTest {
   private AmountRepository amountRepository;
 
   @Mock
-  private InstallmentRepository installmentRepository;
+  private UserRepository userRepository;
 
   @Mock
-  private UserRepository userRepository;
+  private AmountWriteCoordinator amountWriteCoordinator;
+
+  @Spy
+  private DashboardCache dashboardCache = new DashboardCache(new DashboardCacheProperties(),
+      new SimpleMeterRegistry());
 
   @Mock
-  private InstallmentCalculator installmentCalculator;
+  private ForecastCache forecastCache;
 
   @InjectMocks
   private AmountServiceImpl amountService;
@@ -97,12 +108,14 @@ public class AmountServiceImplTest {
   @DisplayName("Should fetch all records based on the user ID")
   @Test
   void all_ShouldReturnAllBanks_WhenSuccess() {
-    when(amountRepository.findAllByUserId(anyString()))
-        .thenReturn(Collections.singletonList(mockAmount));
+    when(amountRepository.findAllByUserId(anyString(), anyLong(), any()))
+        .thenReturn(Collections.singletonList(new AmountRow(mockAmount.getId(),
+            mockAmount.getName(), mockAmount.getInitialAmount(), mockAmount.getLeftoverAmount(),
+            mockAmount.getCreatedAt(), mockAmount.getUpdatedAt())));
 
-    List<AmountResponseDto> banks = amountService.all("random-string");
+    List<AmountResponseDto> banks = amountService.all("random-string", null, null).getItems();
 
-    verify(amountRepository, times((1))).findAllByUserId("random-string");
+    verify(amountRepository, times((1))).findAllByUserId(eq("random-string"), eq(0L), any());
 
     assertFalse(banks.isEmpty());
     assertEquals(1, banks.size());
@@ -133,17 +146,46 @@ public class AmountServiceImplTest {
         .thenReturn(Optional.of(mockAmount));
     when(amountRepository.save(any(Amount.class)))
         .thenReturn(mockAmount);
+    when(amountRepository.findLeftoverAmountById(1L))
+        .thenReturn(mockAmount.getLeftoverAmount());
+    when(amountWriteCoordinator.execute(anyLong(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
 
     AmountResponseDto amount = amountService.update(1L, "random-string", amountRequestDto);
 
     verify(userRepository, times((1))).findById("random-string");
     verify(amountRepository, times((1))).findByUserId(1L, "random-string");
     verify(amountRepository, times((1))).save(any(Amount.class));
+    verify(amountRepository, times((1))).subtractLeftoverAmountById(1L, BigDecimal.ZERO);
 
     assertNotNull(amount);
     assertEquals(mockAmount.getId(), amount.getId());
   }
 
+  @DisplayName("Should shift the leftover by the change and return it as stored after the shift")
+  @Test
+  void update_ShouldApplyDeltaToLeftoverAmount_WhenInitialAmountChanges() {
+    amountRequestDto.setAmount(BigDecimal.valueOf(15));
+
+    when(userRepository.findById(anyString()))
+        .thenReturn(Optional.of(mockUser));
+    when(amountRepository.findByUserId(anyLong(), anyString()))
+        .thenReturn(Optional.of(mockAmount));
+    when(amountRepository.save(any(Amount.class)))
+        .thenReturn(mockAmount);
+    // Another installment of the amount was created between the load and the shift.
+    when(amountRepository.findLeftoverAmountById(1L))
+        .thenReturn(BigDecimal.valueOf(12));
+    when(amountWriteCoordinator.execute(anyLong(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+    AmountResponseDto amount = amountService.update(1L, "random-string", amountRequestDto);
+
+    verify(amountRepository, times((1))).subtractLeftoverAmountById(1L, BigDecimal.valueOf(-5));
+
+    assertEquals(BigDecimal.valueOf(12), amount.getLeftoverAmount());
+  }
+
   @DisplayName("Should delete the record based on the record ID and user ID")
   @Test
   void update_ShouldDeleteAndReturnTrue_WhenSuccess() {
@@ -3,19 +3,28 @@ package app.weehong.financeapi.services;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import app.weehong.financeapi.configs.DashboardCacheProperties;
 import app.weehong.financeapi.dtos.request.BankRequestDto;
 import app.weehong.financeapi.dtos.response.BankResponseDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
 import app.weehong.financeapi.entities.Bank;
 import app.weehong.financeapi.entities.User;
 import app.weehong.financeapi.repositories.BankRepository;
 import app.weehong.financeapi.repositories.UserRepository;
+import app.weehong.financeapi.utils.DashboardCache;
+import app.weehong.financeapi.utils.ForecastCache;
+import app.weehong.financeapi.utils.PageCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -26,7 +35,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 @ExtendWith(MockitoExtension.class)
 public class BankServiceImplTest {
@@ -37,6 +49,13 @@ public class BankServiceImplTest {
   @Mock
   private UserRepository userRepository;
 
+  @Spy
+  private DashboardCache dashboardCache = new DashboardCache(new DashboardCacheProperties(),
+      new SimpleMeterRegistry());
+
+  @Mock
+  private ForecastCache forecastCache;
+
   @InjectMocks
   private BankServiceImpl bankService;
 
@@ -86,17 +105,51 @@ public class BankServiceImplTest {
   @DisplayName("Should fetch all records based on the user ID")
   @Test
   void all_ShouldReturnAllBanks_WhenSuccess() {
-    when(bankRepository.findAllByUserId(anyString()))
+    when(bankRepository.findAllByUserId(anyString(), anyLong(), any()))
         .thenReturn(Collections.singletonList(mockBank));
 
-    List<BankResponseDto> banks = bankService.all("random-string");
+    List<BankResponseDto> banks = bankService.all("random-string", null, null).getItems();
 
-    verify(bankRepository, times((1))).findAllByUserId("random-string");
+    verify(bankRepository, times((1))).findAllByUserId(eq("random-string"), eq(0L), any());
 
     assertFalse(banks.isEmpty());
     assertEquals(1, banks.size());
   }
 
+  @DisplayName("Should return the cursor of the last bank when there are more banks than the limit")
+  @Test
+  void all_ShouldReturnNextCursor_WhenThereIsANextPage() {
+    Bank nextBank = new Bank();
+    nextBank.setId(2L);
+    nextBank.setName("OCBC");
+    nextBank.setUser(mockBank.getUser());
+
+    when(bankRepository.findAllByUserId(eq("random-string"), eq(0L), any()))
+        .thenReturn(List.of(mockBank, nextBank));
+
+    CursorPageDto<BankResponseDto> page = bankService.all("random-string", null, 1);
+
+    assertEquals(1, page.getItems().size());
+    assertEquals(mockBank.getId(), PageCursor.decodeId(page.getNextCursor()));
+
+    when(bankRepository.findAllByUserId(eq("random-string"), eq(mockBank.getId()), any()))
+        .thenReturn(List.of(nextBank));
+
+    page = bankService.all("random-string", page.getNextCursor(), 1);
+
+    assertEquals(nextBank.getId(), page.getItems().get(0).getId());
+    assertNull(page.getNextCursor());
+  }
+
+  @DisplayName("Should reject a cursor that was not issued by the API")
+  @Test
+  void all_ShouldThrowBadRequest_WhenCursorIsInvalid() {
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+        () -> bankService.all("random-string", "not-a-cursor", null));
+
+    assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+  }
+
   @DisplayName("Should fetch single record based on the record ID and user ID")
   @Test
   void getById_ShouldReturnBank_WhenSuccess() {
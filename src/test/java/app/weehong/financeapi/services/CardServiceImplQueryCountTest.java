@@ -0,0 +1,158 @@
+package app.weehong.financeapi.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import app.weehong.financeapi.configs.AmountWriteProperties;
+import app.weehong.financeapi.dtos.response.CardResponseDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
+import app.weehong.financeapi.entities.Amount;
+import app.weehong.financeapi.entities.Bank;
+import app.weehong.financeapi.entities.Card;
+import app.weehong.financeapi.entities.Installment;
+import app.weehong.financeapi.entities.User;
+import app.weehong.financeapi.utils.AmountWriteCoordinator;
+import app.weehong.financeapi.utils.DashboardCache;
+import app.weehong.financeapi.utils.ForecastCache;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CardServiceImpl.class, AmountWriteCoordinator.class, AmountWriteProperties.class})
+class CardServiceImplQueryCountTest {
+
+  private static final String USER_ID = "query-count-user";
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private CardServiceImpl cardService;
+
+  @MockBean
+  private DashboardCache dashboardCache;
+
+  @MockBean
+  private ForecastCache forecastCache;
+
+  private Statistics statistics;
+
+  private Bank bank;
+
+  private Amount amount;
+
+  private int installmentCount;
+
+  @BeforeEach
+  void setUp() {
+    entityManager.createNativeQuery("""
+            INSERT INTO users (id, name, created_at, updated_at)
+            VALUES (:id, 'Query Count', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            """)
+        .setParameter("id", USER_ID)
+        .executeUpdate();
+    User user = entityManager.find(User.class, USER_ID);
+
+    bank = new Bank();
+    bank.setName("DBS");
+    bank.setUser(user);
+    entityManager.persist(bank);
+
+    amount = new Amount();
+    amount.setName("Credit Limit");
+    amount.setInitialAmount(BigDecimal.valueOf(1000));
+    amount.setLeftoverAmount(BigDecimal.valueOf(1000));
+    amount.setUser(user);
+    entityManager.persist(amount);
+
+    statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+        .getStatistics();
+  }
+
+  @DisplayName("All cards should load with the same number of queries whatever the number of cards")
+  @Test
+  void CardService_All_ShouldUseFixedNumberOfQueries() {
+    createCards(1);
+    long oneCardQueries = countQueries(() -> {
+      CursorPageDto<CardResponseDto> page = cardService.all(USER_ID, null, null);
+      assertEquals(1, page.getItems().size());
+      assertEquals(2, page.getItems().get(0).getInstallments().size());
+    });
+
+    createCards(10);
+    long elevenCardQueries = countQueries(() -> {
+      CursorPageDto<CardResponseDto> page = cardService.all(USER_ID, null, null);
+      assertEquals(11, page.getItems().size());
+      page.getItems().forEach(card -> {
+        assertEquals(bank.getId(), card.getBankId());
+        assertEquals(0, amount.getInitialAmount().compareTo(card.getInitialAmount()));
+        assertEquals(2, card.getInstallments().size());
+      });
+    });
+
+    assertEquals(2, oneCardQueries);
+    assertEquals(oneCardQueries, elevenCardQueries);
+  }
+
+  @DisplayName("Get card by ID should load the card with its installments in a fixed number of queries")
+  @Test
+  void CardService_GetById_ShouldUseFixedNumberOfQueries() {
+    Long id = createCards(1);
+
+    long queries = countQueries(() -> {
+      CardResponseDto card = cardService.getById(id, USER_ID);
+      assertEquals(2, card.getInstallments().size());
+    });
+
+    assertEquals(2, queries);
+  }
+
+  private Long createCards(int count) {
+    Long id = null;
+
+    for (int index = 0; index < count; index++) {
+      Card card = new Card();
+      card.setName("Card " + index);
+      card.setStatementDate(1);
+      card.setBank(bank);
+      card.setAmount(amount);
+      entityManager.persist(card);
+      id = card.getId();
+
+      for (int unit = 0; unit < 2; unit++) {
+        Installment installment = new Installment();
+        installment.setName("Installment " + ++installmentCount);
+        installment.setTotalAmount(BigDecimal.valueOf(120));
+        installment.setTenure(12);
+        installment.setLeftoverTenure(12);
+        installment.setPricePerMonth(BigDecimal.TEN);
+        installment.setStartDate(LocalDate.now());
+        installment.setEndDate(LocalDate.now().plusMonths(12));
+        installment.setActive(true);
+        installment.setCard(card);
+        entityManager.persist(installment);
+      }
+    }
+
+    return id;
+  }
+
+  private long countQueries(Runnable runnable) {
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+
+    runnable.run();
+
+    return statistics.getPrepareStatementCount();
+  }
+}
@@ -0,0 +1,129 @@
+package app.weehong.financeapi.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import app.weehong.financeapi.configs.AmountWriteProperties;
+import app.weehong.financeapi.entities.Amount;
+import app.weehong.financeapi.entities.Bank;
+import app.weehong.financeapi.entities.Card;
+import app.weehong.financeapi.entities.User;
+import app.weehong.financeapi.repositories.CardRepository;
+import app.weehong.financeapi.utils.AmountWriteCoordinator;
+import app.weehong.financeapi.utils.DashboardCache;
+import app.weehong.financeapi.utils.ForecastCache;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.Optional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+    "spring.jpa.properties.hibernate.javax.cache.provider="
+        + "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+    "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail"
+})
+@Import({CardServiceImpl.class, AmountWriteCoordinator.class, AmountWriteProperties.class})
+class CardServiceImplSecondLevelCacheTest {
+
+  private static final String USER_ID = "second-level-cache-user";
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private CardRepository cardRepository;
+
+  @Autowired
+  private CardServiceImpl cardService;
+
+  @MockBean
+  private DashboardCache dashboardCache;
+
+  @MockBean
+  private ForecastCache forecastCache;
+
+  private Statistics statistics;
+
+  private Card card;
+
+  @BeforeEach
+  void setUp() {
+    entityManager.createNativeQuery("""
+            INSERT INTO users (id, name, created_at, updated_at)
+            VALUES (:id, 'Second Level Cache', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            """)
+        .setParameter("id", USER_ID)
+        .executeUpdate();
+    User user = entityManager.find(User.class, USER_ID);
+
+    Bank bank = new Bank();
+    bank.setName("DBS");
+    bank.setUser(user);
+    entityManager.persist(bank);
+
+    Amount amount = new Amount();
+    amount.setName("Credit Limit");
+    amount.setInitialAmount(BigDecimal.valueOf(1000));
+    amount.setLeftoverAmount(BigDecimal.valueOf(1000));
+    amount.setUser(user);
+    entityManager.persist(amount);
+
+    card = new Card();
+    card.setName("Visa");
+    card.setStatementDate(1);
+    card.setBank(bank);
+    card.setAmount(amount);
+    entityManager.persist(card);
+
+    statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+        .getStatistics();
+  }
+
+  @DisplayName("Card lookups should come from the second-level cache once the card is loaded")
+  @Test
+  void CardRepository_FindCachedByUserId_ShouldSkipQueries_WhenCardIsCached() {
+    countQueries(() -> cardRepository.findCachedByUserId(card.getId(), USER_ID));
+
+    long queries = countQueries(() -> {
+      Optional<Card> cachedCard = cardRepository.findCachedByUserId(card.getId(), USER_ID);
+      assertEquals("Visa", cachedCard.get().getName());
+      assertTrue(cardRepository.findCachedByUserId(card.getId(), "another-user").isEmpty());
+    });
+
+    assertEquals(0, queries);
+    assertEquals(2, statistics.getSecondLevelCacheHitCount());
+  }
+
+  @DisplayName("Delete card should remove the card from the second-level cache")
+  @Test
+  void CardService_Delete_ShouldInvalidateCachedCard() {
+    countQueries(() -> cardRepository.findCachedByUserId(card.getId(), USER_ID));
+
+    cardService.delete(card.getId(), USER_ID);
+    entityManager.flush();
+    entityManager.clear();
+
+    assertTrue(cardRepository.findCachedByUserId(card.getId(), USER_ID).isEmpty());
+  }
+
+  private long countQueries(Runnable runnable) {
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+
+    runnable.run();
+
+    return statistics.getPrepareStatementCount();
+  }
+}
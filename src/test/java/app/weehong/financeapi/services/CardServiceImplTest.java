@@ -4,7 +4,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.never;
@@ -12,6 +14,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import app.weehong.financeapi.configs.DashboardCacheProperties;
 import app.weehong.financeapi.dtos.request.CardRequestDto;
 import app.weehong.financeapi.dtos.response.CardResponseDto;
 import app.weehong.financeapi.entities.Amount;
@@ -21,19 +24,26 @@ import app.weehong.financeapi.entities.User;
 import app.weehong.financeapi.repositories.AmountRepository;
 import app.weehong.financeapi.repositories.BankRepository;
 import app.weehong.financeapi.repositories.CardRepository;
+import app.weehong.financeapi.repositories.InstallmentRepository;
 import app.weehong.financeapi.repositories.UserRepository;
+import app.weehong.financeapi.utils.AmountWriteCoordinator;
+import app.weehong.financeapi.utils.DashboardCache;
+import app.weehong.financeapi.utils.ForecastCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
@@ -53,6 +63,19 @@ class CardServiceImplTest {
   @Mock
   private UserRepository userRepository;
 
+  @Mock
+  private InstallmentRepository installmentRepository;
+
+  @Mock
+  private AmountWriteCoordinator amountWriteCoordinator;
+
+  @Spy
+  private DashboardCache dashboardCache = new DashboardCache(new DashboardCacheProperties(),
+      new SimpleMeterRegistry());
+
+  @Mock
+  private ForecastCache forecastCache;
+
   @InjectMocks
   private CardServiceImpl cardService;
 
@@ -186,12 +209,12 @@ class CardServiceImplTest {
   @DisplayName("Get all cards should return empty card list if no cards exist")
   @Test
   void CardService_All_ShouldReturnEmptyCardList() {
-    when(cardRepository.findAllByUserId(anyString()))
+    when(cardRepository.findAllByUserId(anyString(), anyLong(), any()))
         .thenReturn(new ArrayList<>());
 
-    List<CardResponseDto> cards = cardService.all("random-string");
+    List<CardResponseDto> cards = cardService.all("random-string", null, null).getItems();
 
-    verify(cardRepository, times((1))).findAllByUserId("random-string");
+    verify(cardRepository, times((1))).findAllByUserId(eq("random-string"), eq(0L), any());
 
     assert (cards.isEmpty());
   }
@@ -199,12 +222,12 @@ class CardServiceImplTest {
   @DisplayName("Get all cards should return card list if cards exist")
   @Test
   void CardService_All_ShouldReturnCardList() {
-    when(cardRepository.findAllByUserId("random-string"))
+    when(cardRepository.findAllByUserId(eq("random-string"), anyLong(), any()))
         .thenReturn(Arrays.asList(mockCardOne, mockCardTwo));
 
-    List<CardResponseDto> cards = cardService.all("random-string");
+    List<CardResponseDto> cards = cardService.all("random-string", null, null).getItems();
 
-    verify(cardRepository, times((1))).findAllByUserId("random-string");
+    verify(cardRepository, times((1))).findAllByUserId(eq("random-string"), eq(0L), any());
 
     assertFalse(cards.isEmpty());
     assertEquals(2, cards.size());
@@ -266,10 +289,13 @@ class CardServiceImplTest {
         .thenReturn(Optional.of(mockBank));
     when(cardRepository.save(any(Card.class)))
         .thenReturn(mockCardOne);
+    when(amountWriteCoordinator.execute(anyLong(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
 
     CardResponseDto cardResponseDto = cardService.update(1L, "", cardRequestDto);
 
     verify(cardRepository, times((1))).save(any(Card.class));
+    verify(amountRepository, never()).subtractLeftoverAmountById(anyLong(), any());
 
     assertEquals(mockCardOne.getId(), cardResponseDto.getId());
     assertEquals(mockCardOne.getStatementDate(), cardResponseDto.getStatementDate());
@@ -277,6 +303,40 @@ class CardServiceImplTest {
     assertEquals(mockCardOne.getName(), cardResponseDto.getName());
   }
 
+  @DisplayName("Update card should move the outstanding amount when the card changes amount")
+  @Test
+  void CardService_Update_ShouldMoveOutstandingAmount_WhenAmountChanges() {
+    Amount otherAmount = new Amount();
+    otherAmount.setUser(mockUser);
+    otherAmount.setId(2L);
+    otherAmount.setName("POSB Credit Amount");
+    otherAmount.setInitialAmount(BigDecimal.TEN);
+    otherAmount.setLeftoverAmount(BigDecimal.TEN);
+    cardRequestDto.setAmountId(2L);
+
+    when(cardRepository.findByUserId(1L, "random-string"))
+        .thenReturn(Optional.of(mockCardOne));
+    when(amountRepository.findByUserId(2L, "random-string"))
+        .thenReturn(Optional.of(otherAmount));
+    when(bankRepository.findByUserId(1L, "random-string"))
+        .thenReturn(Optional.of(mockBank));
+    when(cardRepository.save(any(Card.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(installmentRepository.sumOutstandingAmountByCardId(1L))
+        .thenReturn(new BigDecimal("3.50"));
+    when(amountWriteCoordinator.execute(anyLong(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+    cardService.update(1L, "random-string", cardRequestDto);
+
+    verify(amountWriteCoordinator, times((1))).execute(eq(1L), any());
+    verify(amountRepository, times((1))).subtractLeftoverAmountById(1L, new BigDecimal("-3.50"));
+    verify(amountRepository, times((1))).subtractLeftoverAmountById(2L, new BigDecimal("3.50"));
+    verify(dashboardCache, times((1))).evictAmounts(List.of(1L, 2L));
+
+    assertEquals(otherAmount, mockCardOne.getAmount());
+  }
+
   @DisplayName("Update card should return null if card does not exist")
   @Test
   void CardService_Update_ShouldFailToUpdateCard() {
@@ -292,8 +352,8 @@ class CardServiceImplTest {
     });
 
     verify(cardRepository, times((1))).findByUserId(99L, "");
-    verify(amountRepository, times((1))).findByUserId(99L, "");
-    verify(bankRepository, times((1))).findByUserId(99L, "");
+    verify(amountRepository, times((1))).findByUserId(1L, "");
+    verify(bankRepository, times((1))).findByUserId(1L, "");
     verify(cardRepository, never()).save(any());
 
     assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
@@ -303,30 +363,55 @@ class CardServiceImplTest {
   @DisplayName("Delete card should return true if card exists and is deleted")
   @Test
   void CardService_Delete_ShouldDeleteCard() {
-    when(cardRepository.findByUserId(1L, "random-string"))
+    when(cardRepository.findCachedByUserId(1L, "random-string"))
         .thenReturn(Optional.of(mockCardOne))
         .thenReturn(Optional.empty());
     when(cardRepository.findById(1L))
         .thenReturn(Optional.empty());
+    when(installmentRepository.sumOutstandingAmountByCardId(1L))
+        .thenReturn(BigDecimal.ZERO);
+    when(amountWriteCoordinator.execute(anyLong(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
 
     cardService.delete(1L, "random-string");
 
-    verify(cardRepository, times((1))).findByUserId(1L, "random-string");
+    verify(cardRepository, times((1))).findCachedByUserId(1L, "random-string");
     verify(cardRepository, times((1))).findById(1L);
     verify(cardRepository, times((1))).deleteById(1L);
+    verify(amountRepository, never()).subtractLeftoverAmountById(anyLong(), any());
+  }
+
+  @DisplayName("Delete card should give the outstanding amount of its installments back")
+  @Test
+  void CardService_Delete_ShouldRestoreLeftoverAmount_WhenCardHasActiveInstallments() {
+    when(cardRepository.findCachedByUserId(1L, "random-string"))
+        .thenReturn(Optional.of(mockCardOne));
+    when(cardRepository.findById(1L))
+        .thenReturn(Optional.empty());
+    when(installmentRepository.sumOutstandingAmountByCardId(1L))
+        .thenReturn(new BigDecimal("7.25"));
+    when(amountWriteCoordinator.execute(anyLong(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+    assertTrue(cardService.delete(1L, "random-string"));
+
+    verify(amountWriteCoordinator, times((1))).execute(eq(1L), any());
+    verify(cardRepository, times((1))).deleteById(1L);
+    verify(amountRepository, times((1))).subtractLeftoverAmountById(1L, new BigDecimal("-7.25"));
+    verify(dashboardCache, times((1))).evictAmounts(List.of(1L));
   }
 
   @DisplayName("Delete card should return false if card does not exist")
   @Test
   void CardService_Delete_ShouldFailToDeleteCard() {
-    when(cardRepository.findByUserId(99L, ""))
+    when(cardRepository.findCachedByUserId(99L, ""))
         .thenReturn(Optional.empty());
 
     ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
       cardService.delete(99L, "");
     });
 
-    verify(cardRepository, times((1))).findByUserId(99L, "");
+    verify(cardRepository, times((1))).findCachedByUserId(99L, "");
 
     assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
     assertEquals("Record ID doesn't exist.", exception.getReason());
@@ -0,0 +1,150 @@
+package app.weehong.financeapi.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import app.weehong.financeapi.configs.DashboardProperties;
+import app.weehong.financeapi.dtos.request.AmountRequestDto;
+import app.weehong.financeapi.dtos.request.BankRequestDto;
+import app.weehong.financeapi.dtos.request.CardRequestDto;
+import app.weehong.financeapi.dtos.request.InstallmentRequestDto;
+import app.weehong.financeapi.dtos.response.AmountResponseDto;
+import app.weehong.financeapi.dtos.response.BankResponseDto;
+import app.weehong.financeapi.dtos.response.CardResponseDto;
+import app.weehong.financeapi.dtos.response.CursorPageDto;
+import app.weehong.financeapi.dtos.response.DashboardResponseDto;
+import app.weehong.financeapi.dtos.response.InstallmentResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceImplTest {
+
+  @Mock
+  private AmountService<AmountResponseDto, AmountRequestDto> amountService;
+
+  @Mock
+  private BankService<BankResponseDto, BankRequestDto> bankService;
+
+  @Mock
+  private CardService<CardResponseDto, CardRequestDto> cardService;
+
+  @Mock
+  private InstallmentService<InstallmentResponseDto, InstallmentRequestDto> installmentService;
+
+  @Mock
+  private DataSource dataSource;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private DashboardProperties properties;
+
+  private DashboardServiceImpl dashboardService;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    properties = new DashboardProperties();
+    properties.setTimeout(Duration.ofMillis(200));
+    dashboardService = new DashboardServiceImpl(amountService, bankService, cardService,
+        installmentService, properties, meterRegistry, dataSource);
+  }
+
+  @AfterEach
+  void tearDown() {
+    dashboardService.shutdown();
+  }
+
+  @DisplayName("Should compose every section with its next cursor and timing")
+  @Test
+  void dashboard_ShouldComposeSections_WhenSuccess() {
+    AmountResponseDto amount = new AmountResponseDto();
+    amount.setId(1L);
+    BankResponseDto bank = new BankResponseDto();
+    bank.setId(2L);
+    CardResponseDto card = new CardResponseDto();
+    card.setId(3L);
+    InstallmentResponseDto total = new InstallmentResponseDto();
+    total.setName("DBS");
+
+    when(amountService.all("random-string", null, null)).thenReturn(
+        CursorPageDto.<AmountResponseDto>builder().items(List.of(amount)).nextCursor("MQ")
+            .build());
+    when(bankService.all("random-string", null, null)).thenReturn(
+        CursorPageDto.<BankResponseDto>builder().items(List.of(bank)).build());
+    when(cardService.all("random-string", null, null)).thenReturn(
+        CursorPageDto.<CardResponseDto>builder().items(List.of(card)).build());
+    when(installmentService.totalPricePerMonth("random-string")).thenReturn(List.of(total));
+
+    DashboardResponseDto dashboard = dashboardService.dashboard("random-string");
+
+    assertEquals(1L, dashboard.getAmounts().get(0).getId());
+    assertEquals(2L, dashboard.getBanks().get(0).getId());
+    assertEquals(3L, dashboard.getCards().get(0).getId());
+    assertEquals("DBS", dashboard.getTotalPricePerMonth().get(0).getName());
+    assertEquals(Map.of(DashboardServiceImpl.AMOUNTS, "MQ"), dashboard.getNextCursors());
+    assertEquals(List.of(DashboardServiceImpl.AMOUNTS, DashboardServiceImpl.BANKS,
+            DashboardServiceImpl.CARDS, DashboardServiceImpl.TOTAL_PRICE_PER_MONTH),
+        List.copyOf(dashboard.getTimings().keySet()));
+    assertEquals(1, meterRegistry.get("dashboard.section.duration")
+        .tag("section", DashboardServiceImpl.CARDS).timer().count());
+  }
+
+  @DisplayName("Should leave out the next cursors when every section fits in its first page")
+  @Test
+  void dashboard_ShouldOmitNextCursors_WhenNoSectionHasMorePages() {
+    when(amountService.all(anyString(), any(), any())).thenReturn(
+        CursorPageDto.<AmountResponseDto>builder().items(List.of()).build());
+    when(bankService.all(anyString(), any(), any())).thenReturn(
+        CursorPageDto.<BankResponseDto>builder().items(List.of()).build());
+    when(cardService.all(anyString(), any(), any())).thenReturn(
+        CursorPageDto.<CardResponseDto>builder().items(List.of()).build());
+    when(installmentService.totalPricePerMonth(anyString())).thenReturn(List.of());
+
+    DashboardResponseDto dashboard = dashboardService.dashboard("random-string");
+
+    assertNull(dashboard.getNextCursors());
+  }
+
+  @DisplayName("Should rethrow the error of a failing section")
+  @Test
+  void dashboard_ShouldRethrow_WhenSectionFails() {
+    when(amountService.all(anyString(), any(), any())).thenThrow(
+        new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist."));
+
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+        () -> dashboardService.dashboard("random-string"));
+
+    assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+  }
+
+  @DisplayName("Should return service unavailable when a section takes longer than the timeout")
+  @Test
+  void dashboard_ShouldReturnServiceUnavailable_WhenSectionTimesOut() {
+    when(cardService.all(anyString(), any(), any())).thenAnswer(invocation -> {
+      Thread.sleep(1_000);
+      return CursorPageDto.<CardResponseDto>builder().items(List.of()).build();
+    });
+
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+        () -> dashboardService.dashboard("random-string"));
+
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+  }
+}
@@ -0,0 +1,144 @@
+package app.weehong.financeapi.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import app.weehong.financeapi.projections.installments.InstallmentExportRow;
+import app.weehong.financeapi.repositories.InstallmentRepository;
+import app.weehong.financeapi.services.InstallmentExportService.Format;
+import app.weehong.financeapi.utils.StatementDateCalculator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class InstallmentExportServiceImplTest {
+
+  @Mock
+  private InstallmentRepository installmentRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private InstallmentExportServiceImpl installmentExportService;
+
+  @BeforeEach
+  public void init() {
+    ObjectMapper objectMapper = new ObjectMapper()
+        .findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    installmentExportService = new InstallmentExportServiceImpl(installmentRepository,
+        objectMapper, transactionManager);
+  }
+
+  @DisplayName("Should write one JSON document per installment, completed ones included")
+  @Test
+  void export_ShouldWriteOneLinePerInstallment_WhenFormatIsNdjson() throws Exception {
+    LocalDate today = StatementDateCalculator.today();
+    when(installmentRepository.streamAllByUserId("user-1"))
+        .thenReturn(Stream.of(
+            exportRow(1L, "Phone", today.plusMonths(3)),
+            exportRow(2L, "Laptop", today.minusYears(1))));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    installmentExportService.export("user-1", Format.NDJSON, outputStream);
+
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].startsWith("{\"id\":1,\"name\":\"Phone\""));
+    assertTrue(lines[0].contains("\"is_active\":true"));
+    assertTrue(lines[1].contains("\"leftover_tenure\":0"));
+    assertTrue(lines[1].contains("\"is_active\":false"));
+  }
+
+  @DisplayName("Should write a header and quote the fields that need it")
+  @Test
+  void export_ShouldWriteHeaderAndRecords_WhenFormatIsCsv() throws Exception {
+    LocalDate endDate = LocalDate.of(2020, 6, 1);
+    when(installmentRepository.streamAllByUserId("user-1"))
+        .thenReturn(Stream.of(exportRow(1L, "TV, \"55\"", endDate)));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    installmentExportService.export("user-1", Format.CSV, outputStream);
+
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\r\n");
+    assertEquals(2, lines.length);
+    assertEquals("id,name,total_amount,tenure,leftover_tenure,price_per_month,start_date,"
+        + "end_date,is_active,card_id,card_name,created_at", lines[0]);
+    assertEquals("1,\"TV, \"\"55\"\"\",1200.00,12,0,100.00,2019-06-01,2020-06-01,false,1,"
+        + "Visa,2019-06-01T10:00", lines[1]);
+  }
+
+  private InstallmentExportRow exportRow(Long id, String name, LocalDate endDate) {
+    return new InstallmentExportRow() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getName() {
+        return name;
+      }
+
+      @Override
+      public BigDecimal getTotalAmount() {
+        return new BigDecimal("1200.00");
+      }
+
+      @Override
+      public Integer getTenure() {
+        return 12;
+      }
+
+      @Override
+      public BigDecimal getPricePerMonth() {
+        return new BigDecimal("100.00");
+      }
+
+      @Override
+      public LocalDate getStartDate() {
+        return endDate.minusMonths(12);
+      }
+
+      @Override
+      public LocalDate getEndDate() {
+        return endDate;
+      }
+
+      @Override
+      public Long getCardId() {
+        return 1L;
+      }
+
+      @Override
+      public String getCardName() {
+        return "Visa";
+      }
+
+      @Override
+      public Integer getStatementDate() {
+        return 15;
+      }
+
+      @Override
+      public LocalDateTime getCreatedAt() {
+        return getStartDate().atTime(10, 0);
+      }
+    };
+  }
+}
@@ -0,0 +1,126 @@
+package app.weehong.financeapi.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import app.weehong.financeapi.configs.InstallmentImportProperties;
+import app.weehong.financeapi.dtos.request.InstallmentRequestDto;
+import app.weehong.financeapi.dtos.response.InstallmentBatchResultDto;
+import app.weehong.financeapi.dtos.response.InstallmentImportSummaryDto;
+import app.weehong.financeapi.dtos.response.InstallmentResponseDto;
+import app.weehong.financeapi.mappers.InstallmentCsvMapper;
+import app.weehong.financeapi.utils.CsvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+@ExtendWith(MockitoExtension.class)
+public class InstallmentImportServiceImplTest {
+
+  private static final String HEADER = "name,amount,tenure,start_date,card_id\n";
+
+  @Mock
+  private InstallmentService<InstallmentResponseDto, InstallmentRequestDto> installmentService;
+
+  @Mock
+  private EntityManager entityManager;
+
+  private InstallmentImportProperties properties;
+
+  private InstallmentImportServiceImpl installmentImportService;
+
+  @BeforeEach
+  public void init() {
+    properties = new InstallmentImportProperties();
+    properties.setChunkSize(2);
+
+    installmentImportService = new InstallmentImportServiceImpl(installmentService, properties,
+        Validation.buildDefaultValidatorFactory().getValidator(), entityManager);
+  }
+
+  @DisplayName("Should create the valid records in chunks and report the failures by record")
+  @Test
+  void importCsv_ShouldReportFailuresByRecord_WhenSomeRecordsAreInvalid() throws Exception {
+    CsvReader csvReader = new CsvReader(new StringReader(HEADER
+        + "Phone,1200.00,12,2023-01-01,1\n"
+        + "Laptop,abc,12,2023-01-01,1\n"
+        + "\n"
+        + "TV,900.00,6,2023-01-01,2\n"
+        + ",300.00,3,2023-01-01,1\n"));
+    InstallmentCsvMapper csvMapper = InstallmentCsvMapper.fromHeader(csvReader.next());
+
+    when(installmentService.createAll(eq("user-1"), anyList()))
+        .thenAnswer(invocation -> {
+          List<InstallmentRequestDto> installmentRequestDtos = invocation.getArgument(1);
+          return IntStream.range(0, installmentRequestDtos.size())
+              .mapToObj(index -> InstallmentBatchResultDto.builder()
+                  .index(index)
+                  .isSuccess(installmentRequestDtos.get(index).getCardId() == 1L)
+                  .message(installmentRequestDtos.get(index).getCardId() == 1L
+                      ? null : "Card ID doesn't exist.")
+                  .build())
+              .collect(Collectors.toList());
+        });
+
+    List<List<InstallmentBatchResultDto>> chunks = new ArrayList<>();
+    InstallmentImportSummaryDto summary = installmentImportService.importCsv("user-1",
+        csvReader, csvMapper, chunks::add);
+
+    verify(installmentService, times(2)).createAll(eq("user-1"), anyList());
+    verify(entityManager, times(2)).clear();
+
+    assertEquals(1, summary.getImported());
+    assertEquals(3, summary.getFailed());
+    assertEquals(2, chunks.size());
+    assertEquals(3, chunks.get(0).get(0).getIndex());
+    assertEquals("Total amount must be a number", chunks.get(0).get(0).getMessage());
+    assertEquals(5, chunks.get(1).get(0).getIndex());
+    assertEquals("Card ID doesn't exist.", chunks.get(1).get(0).getMessage());
+    assertEquals(6, chunks.get(1).get(1).getIndex());
+    assertEquals("Name is required", chunks.get(1).get(1).getMessage());
+    assertFalse(chunks.get(1).get(1).isSuccess());
+  }
+
+  @DisplayName("Should stop and report the malformed record when the file can't be parsed")
+  @Test
+  void importCsv_ShouldStop_WhenRecordIsMalformed() throws Exception {
+    CsvReader csvReader = new CsvReader(new StringReader(HEADER
+        + "\"Phone,1200.00,12,2023-01-01,1\n"));
+    InstallmentCsvMapper csvMapper = InstallmentCsvMapper.fromHeader(csvReader.next());
+
+    InstallmentImportSummaryDto summary = installmentImportService.importCsv("user-1",
+        csvReader, csvMapper, failures -> {
+        });
+
+    verify(installmentService, never()).createAll(eq("user-1"), anyList());
+
+    assertEquals(0, summary.getImported());
+    assertNotNull(summary.getMessage());
+  }
+
+  @DisplayName("Should reject a header without the required columns")
+  @Test
+  void fromHeader_ShouldThrowResponseStatusException_WhenColumnIsMissing() {
+    assertThrows(ResponseStatusException.class,
+        () -> InstallmentCsvMapper.fromHeader(List.of("name", "amount")));
+  }
+}
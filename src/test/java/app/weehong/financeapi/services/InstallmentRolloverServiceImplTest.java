@@ -0,0 +1,346 @@
+package app.weehong.financeapi.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import app.weehong.financeapi.configs.InstallmentRolloverProperties;
+import app.weehong.financeapi.projections.cards.DueCardProjection;
+import app.weehong.financeapi.repositories.AmountRepository;
+import app.weehong.financeapi.repositories.CardRepository;
+import app.weehong.financeapi.repositories.InstallmentRepository;
+import app.weehong.financeapi.repositories.RolloverWatermarkRepository;
+import app.weehong.financeapi.services.SchedulerLockService.Lease;
+import app.weehong.financeapi.utils.DashboardCache;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class InstallmentRolloverServiceImplTest {
+
+  @Mock
+  private InstallmentRepository installmentRepository;
+
+  @Mock
+  private CardRepository cardRepository;
+
+  @Mock
+  private AmountRepository amountRepository;
+
+  @Mock
+  private RolloverWatermarkRepository rolloverWatermarkRepository;
+
+  @Mock
+  private SchedulerLockService schedulerLockService;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private DataSource dataSource;
+
+  @Mock
+  private DashboardCache dashboardCache;
+
+  private InstallmentRolloverProperties properties;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private InstallmentRolloverServiceImpl installmentRolloverService;
+
+  @BeforeEach
+  public void init() {
+    properties = new InstallmentRolloverProperties();
+    meterRegistry = new SimpleMeterRegistry();
+
+    installmentRolloverService = new InstallmentRolloverServiceImpl(installmentRepository,
+        cardRepository, amountRepository, rolloverWatermarkRepository, schedulerLockService,
+        dashboardCache, properties, meterRegistry, transactionManager, dataSource, "*/10 * * * * *");
+  }
+
+  @AfterEach
+  public void destroy() {
+    installmentRolloverService.shutdown();
+  }
+
+  @DisplayName("Should roll over the installments of the cards due on the statement date")
+  @Test
+  void rollover_ShouldRolloverCardsDueOnTheDate_WhenSuccess() {
+    when(cardRepository.streamDueCardsByStatementDates(List.of(15), LocalDate.of(2023, 3, 15)))
+        .thenReturn(Stream.of(dueCard(1L, 1L), dueCard(2L, 1L)));
+    when(installmentRepository.rolloverLeftoverTenureByCardIds(Set.of(1L, 2L),
+        LocalDate.of(2023, 2, 15), 2023 * 12 + 3, 15))
+        .thenReturn(4);
+
+    int updated = installmentRolloverService.rollover(LocalDate.of(2023, 3, 15));
+
+    InOrder inOrder = inOrder(amountRepository);
+    verify(installmentRepository, times((1))).deactivateCompletedInstallmentsByCardIds(
+        Set.of(1L, 2L));
+    inOrder.verify(amountRepository, times((1))).lockAllByIds(Set.of(1L));
+    inOrder.verify(amountRepository, times((1))).recalculateLeftoverAmountByIds(Set.of(1L));
+    verify(rolloverWatermarkRepository, times((1))).advanceByCardIds(Set.of(1L, 2L),
+        LocalDate.of(2023, 3, 15));
+    verify(rolloverWatermarkRepository, times((1))).insertByCardIds(Set.of(1L, 2L),
+        LocalDate.of(2023, 3, 15));
+
+    assertEquals(4, updated);
+  }
+
+  @DisplayName("Should record the due cards, updated installments and run duration")
+  @Test
+  void rollover_ShouldRecordMetrics_WhenSuccess() {
+    when(cardRepository.streamDueCardsByStatementDates(List.of(15), LocalDate.of(2023, 3, 15)))
+        .thenReturn(Stream.of(dueCard(1L, 1L), dueCard(2L, 1L)));
+    when(installmentRepository.rolloverLeftoverTenureByCardIds(Set.of(1L, 2L),
+        LocalDate.of(2023, 2, 15), 2023 * 12 + 3, 15))
+        .thenReturn(4);
+    when(installmentRepository.deactivateCompletedInstallmentsByCardIds(Set.of(1L, 2L)))
+        .thenReturn(1);
+
+    installmentRolloverService.rollover(LocalDate.of(2023, 3, 15));
+
+    assertEquals(2.0, meterRegistry.counter("installment.rollover.cards.due", "run", "daily")
+        .count());
+    assertEquals(4.0, meterRegistry.counter("installment.rollover.installments.updated", "run",
+        "daily").count());
+    assertEquals(1.0, meterRegistry.counter("installment.rollover.installments.deactivated",
+        "run", "daily").count());
+    assertEquals(1, meterRegistry.timer("installment.rollover.duration", "run", "daily")
+        .count());
+    assertEquals(1, meterRegistry.timer("installment.rollover.chunk.duration", "run", "daily")
+        .count());
+  }
+
+  @DisplayName("Should clamp the statement dates beyond the month end to the last day of the month")
+  @Test
+  void rollover_ShouldClampStatementDates_WhenLastDayOfMonth() {
+    when(cardRepository.streamDueCardsByStatementDates(List.of(28, 29, 30, 31),
+        LocalDate.of(2023, 2, 28)))
+        .thenReturn(Stream.empty());
+
+    int updated = installmentRolloverService.rollover(LocalDate.of(2023, 2, 28));
+
+    verify(installmentRepository, never()).rolloverLeftoverTenureByCardIds(anyCollection(),
+        any(), anyInt(), anyInt());
+    verify(amountRepository, never()).recalculateLeftoverAmountByIds(anyCollection());
+    verify(rolloverWatermarkRepository, never()).insertByCardIds(anyCollection(), any());
+
+    assertEquals(0, updated);
+  }
+
+  @DisplayName("Should cut chunks only between amounts")
+  @Test
+  void rollover_ShouldKeepCardsOfAnAmountInOneChunk_WhenChunkSizeIsExceeded() {
+    properties.setChunkSize(1);
+
+    when(cardRepository.streamDueCardsByStatementDates(List.of(15), LocalDate.of(2023, 3, 15)))
+        .thenReturn(Stream.of(dueCard(1L, 1L), dueCard(2L, 1L), dueCard(3L, 2L)));
+
+    installmentRolloverService.rollover(LocalDate.of(2023, 3, 15));
+
+    verify(installmentRepository, times((1))).rolloverLeftoverTenureByCardIds(Set.of(1L, 2L),
+        LocalDate.of(2023, 2, 15), 2023 * 12 + 3, 15);
+    verify(installmentRepository, times((1))).rolloverLeftoverTenureByCardIds(Set.of(3L),
+        LocalDate.of(2023, 2, 15), 2023 * 12 + 3, 15);
+    verify(amountRepository, times((1))).recalculateLeftoverAmountByIds(Set.of(1L));
+    verify(amountRepository, times((1))).recalculateLeftoverAmountByIds(Set.of(2L));
+  }
+
+  @DisplayName("Should never run more chunks at once than half of the connection pool")
+  @Test
+  void rollover_ShouldCapParallelism_WhenPoolIsSmall() {
+    HikariDataSource hikariDataSource = new HikariDataSource();
+    hikariDataSource.setMaximumPoolSize(3);
+    properties.setChunkSize(1);
+    installmentRolloverService.shutdown();
+    installmentRolloverService = new InstallmentRolloverServiceImpl(installmentRepository,
+        cardRepository, amountRepository, rolloverWatermarkRepository, schedulerLockService,
+        dashboardCache, properties, meterRegistry, transactionManager, hikariDataSource, "*/10 * * * * *");
+
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    when(cardRepository.streamDueCardsByStatementDates(List.of(1), LocalDate.of(2023, 3, 1)))
+        .thenReturn(Stream.of(dueCard(1L, 1L), dueCard(2L, 2L), dueCard(3L, 3L)));
+    when(installmentRepository.rolloverLeftoverTenureByCardIds(anyCollection(), any(),
+        anyInt(), anyInt()))
+        .thenAnswer(invocation -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          Thread.sleep(10);
+          running.decrementAndGet();
+          return 1;
+        });
+
+    int updated = installmentRolloverService.rollover(LocalDate.of(2023, 3, 1));
+
+    assertEquals(3, updated);
+    assertEquals(1, maxRunning.get());
+  }
+
+  @DisplayName("Should catch up the cards that are behind their latest statement date")
+  @Test
+  void catchUp_ShouldRolloverCardsBehindTheirLatestStatementDate_WhenSuccess() {
+    properties.setChunkSize(1);
+
+    when(cardRepository.streamDueCardsByStatementDates(anyList(), any()))
+        .thenAnswer(invocation -> Stream.empty());
+    when(cardRepository.streamDueCardsByStatementDates(List.of(10), LocalDate.of(2023, 3, 10)))
+        .thenReturn(Stream.of(dueCard(2L, 2L)));
+    when(cardRepository.streamDueCardsByStatementDates(List.of(28, 29, 30, 31),
+        LocalDate.of(2023, 2, 28)))
+        .thenReturn(Stream.of(dueCard(1L, 1L)));
+    when(installmentRepository.rolloverLeftoverTenureByCardIds(anyCollection(),
+        eq(LocalDate.of(2023, 2, 15)), eq(2023 * 12 + 3), eq(15)))
+        .thenReturn(2);
+
+    int updated = installmentRolloverService.catchUp(LocalDate.of(2023, 3, 15));
+
+    verify(cardRepository, times((28))).streamDueCardsByStatementDates(anyList(), any());
+    verify(rolloverWatermarkRepository, times((1))).advanceByCardIds(Set.of(1L),
+        LocalDate.of(2023, 2, 28));
+    verify(rolloverWatermarkRepository, times((1))).advanceByCardIds(Set.of(2L),
+        LocalDate.of(2023, 3, 10));
+    verify(amountRepository, times((1))).recalculateLeftoverAmountByIds(Set.of(1L));
+    verify(amountRepository, times((1))).recalculateLeftoverAmountByIds(Set.of(2L));
+
+    assertEquals(4, updated);
+  }
+
+  @DisplayName("Should correct the leftover of drifted amounts page by page")
+  @Test
+  void reconcile_ShouldCorrectDriftedAmounts_WhenSuccess() {
+    properties.setChunkSize(2);
+
+    when(amountRepository.findIdsAfter(0L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(1L, 2L));
+    when(amountRepository.findIdsAfter(2L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(3L));
+    when(amountRepository.findIdsAfter(3L, PageRequest.of(0, 2)))
+        .thenReturn(List.of());
+    when(amountRepository.reconcileLeftoverAmountByIds(List.of(1L, 2L)))
+        .thenReturn(1);
+    when(amountRepository.reconcileLeftoverAmountByIds(List.of(3L)))
+        .thenReturn(0);
+
+    int reconciled = installmentRolloverService.reconcile();
+
+    assertEquals(1, reconciled);
+    assertEquals(1.0, meterRegistry.counter("installment.rollover.amounts.reconciled").count());
+  }
+
+  @DisplayName("Should skip the scheduled rollover when another replica holds the lock")
+  @Test
+  void updateLeftoverTenureSchedule_ShouldSkip_WhenLockIsHeldByAnotherReplica() {
+    when(schedulerLockService.tryAcquire("installment-rollover"))
+        .thenReturn(Optional.empty());
+
+    installmentRolloverService.updateLeftoverTenureSchedule();
+
+    verify(cardRepository, never()).streamDueCardsByStatementDates(anyList(), any());
+    verify(schedulerLockService, never()).release(any());
+
+    assertEquals(1.0, meterRegistry.counter("installment.rollover.skips", "run", "daily",
+        "reason", "lock-held").count());
+    assertEquals(0.0, meterRegistry.counter("installment.rollover.overruns").count());
+  }
+
+  @DisplayName("Should reconcile under its own lock, not the lock of the daily rollover")
+  @Test
+  void reconcileSchedule_ShouldAcquireItsOwnLock_WhenRolloverIsRunning() {
+    Lease lease = new Lease("installment-reconcile", "replica", 1L);
+
+    when(schedulerLockService.tryAcquire("installment-reconcile"))
+        .thenReturn(Optional.of(lease));
+    when(amountRepository.findIdsAfter(0L, PageRequest.of(0, properties.getChunkSize())))
+        .thenReturn(List.of());
+
+    installmentRolloverService.reconcileSchedule();
+
+    verify(schedulerLockService, never()).tryAcquire("installment-rollover");
+    verify(schedulerLockService, times((1))).release(lease);
+  }
+
+  @DisplayName("Should stop rolling over chunks once the lease is lost")
+  @Test
+  void updateLeftoverTenureSchedule_ShouldStopWriting_WhenLeaseIsLost() {
+    Lease lease = new Lease("installment-rollover", "replica", 1L);
+
+    when(schedulerLockService.tryAcquire("installment-rollover"))
+        .thenReturn(Optional.of(lease));
+    when(schedulerLockService.renew(lease))
+        .thenReturn(false);
+    when(cardRepository.streamDueCardsByStatementDates(anyList(), any()))
+        .thenReturn(Stream.of(dueCard(1L, 1L)));
+
+    installmentRolloverService.updateLeftoverTenureSchedule();
+
+    verify(installmentRepository, never()).rolloverLeftoverTenureByCardIds(anyCollection(),
+        any(), anyInt(), anyInt());
+    verify(schedulerLockService, times((1))).release(lease);
+  }
+
+  @DisplayName("Should not write a chunk when the lease changed hands after the renewal")
+  @Test
+  void updateLeftoverTenureSchedule_ShouldStopWriting_WhenFenceFails() {
+    Lease lease = new Lease("installment-rollover", "replica", 1L);
+
+    when(schedulerLockService.tryAcquire("installment-rollover"))
+        .thenReturn(Optional.of(lease));
+    when(schedulerLockService.renew(lease))
+        .thenReturn(true);
+    when(schedulerLockService.fence(lease))
+        .thenReturn(false);
+    when(cardRepository.streamDueCardsByStatementDates(anyList(), any()))
+        .thenReturn(Stream.of(dueCard(1L, 1L)));
+
+    installmentRolloverService.updateLeftoverTenureSchedule();
+
+    verify(installmentRepository, never()).rolloverLeftoverTenureByCardIds(anyCollection(),
+        any(), anyInt(), anyInt());
+    verify(amountRepository, never()).recalculateLeftoverAmountByIds(anyCollection());
+    verify(schedulerLockService, times((1))).release(lease);
+
+    assertEquals(1.0, meterRegistry.counter("installment.rollover.skips", "run", "daily",
+        "reason", "lease-lost").count());
+  }
+
+  private DueCardProjection dueCard(Long cardId, Long amountId) {
+    return new DueCardProjection() {
+      @Override
+      public Long getCardId() {
+        return cardId;
+      }
+
+      @Override
+      public Long getAmountId() {
+        return amountId;
+      }
+    };
+  }
+}
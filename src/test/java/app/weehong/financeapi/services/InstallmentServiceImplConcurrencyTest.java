@@ -0,0 +1,173 @@
+package app.weehong.financeapi.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import app.weehong.financeapi.configs.AmountWriteProperties;
+import app.weehong.financeapi.dtos.request.InstallmentRequestDto;
+import app.weehong.financeapi.entities.Amount;
+import app.weehong.financeapi.entities.Bank;
+import app.weehong.financeapi.entities.Card;
+import app.weehong.financeapi.entities.User;
+import app.weehong.financeapi.utils.AmountWriteCoordinator;
+import app.weehong.financeapi.utils.DashboardCache;
+import app.weehong.financeapi.utils.ForecastCache;
+import app.weehong.financeapi.utils.InstallmentCalculator;
+import app.weehong.financeapi.utils.StatementDateCalculator;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({InstallmentServiceImpl.class, AmountWriteCoordinator.class, AmountWriteProperties.class,
+    InstallmentCalculator.class})
+class InstallmentServiceImplConcurrencyTest {
+
+  private static final String USER_ID = "concurrency-user";
+
+  private static final BigDecimal INITIAL_AMOUNT = BigDecimal.valueOf(1_000_000);
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private InstallmentServiceImpl installmentService;
+
+  @MockBean
+  private DashboardCache dashboardCache;
+
+  @MockBean
+  private ForecastCache forecastCache;
+
+  private TransactionTemplate transactionTemplate;
+
+  private Long amountId;
+
+  private Long cardId;
+
+  @BeforeEach
+  void setUp() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.executeWithoutResult(status -> {
+      entityManager.createNativeQuery("""
+              INSERT INTO users (id, name, created_at, updated_at)
+              VALUES (:id, 'Concurrency', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+              """)
+          .setParameter("id", USER_ID)
+          .executeUpdate();
+      User user = entityManager.find(User.class, USER_ID);
+
+      Bank bank = new Bank();
+      bank.setName("DBS");
+      bank.setUser(user);
+      entityManager.persist(bank);
+
+      Amount amount = new Amount();
+      amount.setName("Credit Limit");
+      amount.setInitialAmount(INITIAL_AMOUNT);
+      amount.setLeftoverAmount(INITIAL_AMOUNT);
+      amount.setUser(user);
+      entityManager.persist(amount);
+
+      Card card = new Card();
+      card.setName("Visa");
+      card.setStatementDate(28);
+      card.setBank(bank);
+      card.setAmount(amount);
+      entityManager.persist(card);
+
+      amountId = amount.getId();
+      cardId = card.getId();
+    });
+  }
+
+  @AfterEach
+  void tearDown() {
+    transactionTemplate.executeWithoutResult(status -> {
+      for (String table : List.of("installments", "cards", "amounts", "banks", "users")) {
+        entityManager.createNativeQuery("DELETE FROM " + table).executeUpdate();
+      }
+    });
+  }
+
+  @DisplayName("Creating installments of one amount from many threads should keep every write")
+  @Test
+  void InstallmentService_Create_ShouldKeepEveryWrite_WhenManyThreadsWriteOneAmount()
+      throws Exception {
+    int threads = 8;
+    int writesPerThread = 25;
+    ExecutorService executorService = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int thread = 0; thread < threads; thread++) {
+      int threadIndex = thread;
+      futures.add(executorService.submit(() -> {
+        start.await();
+        for (int write = 0; write < writesPerThread; write++) {
+          installmentService.create(USER_ID,
+              installmentRequest("Installment " + threadIndex + "-" + write, write));
+        }
+        return null;
+      }));
+    }
+
+    start.countDown();
+    try {
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    transactionTemplate.executeWithoutResult(status -> {
+      Number installments = (Number) entityManager.createNativeQuery(
+          "SELECT COUNT(*) FROM installments").getSingleResult();
+      BigDecimal outstandingAmount = (BigDecimal) entityManager.createNativeQuery("""
+              SELECT COALESCE(SUM(price_per_month * leftover_tenure), 0)
+              FROM installments
+              """)
+          .getSingleResult();
+      BigDecimal leftoverAmount = (BigDecimal) entityManager.createNativeQuery(
+              "SELECT leftover FROM amounts WHERE id = :id")
+          .setParameter("id", amountId)
+          .getSingleResult();
+
+      assertEquals(threads * writesPerThread, installments.intValue());
+      assertEquals(0, INITIAL_AMOUNT.subtract(outstandingAmount).compareTo(leftoverAmount),
+          "leftover " + leftoverAmount + ", outstanding " + outstandingAmount);
+    });
+  }
+
+  private InstallmentRequestDto installmentRequest(String name, int write) {
+    InstallmentRequestDto installmentRequestDto = new InstallmentRequestDto();
+    installmentRequestDto.setName(name);
+    installmentRequestDto.setTotalAmount(BigDecimal.valueOf(10_000 + write * 37L, 2));
+    installmentRequestDto.setTenure(3 + write % 10);
+    installmentRequestDto.setStartDate(StatementDateCalculator.today());
+    installmentRequestDto.setCardId(cardId);
+    return installmentRequestDto;
+  }
+}
@@ -3,34 +3,51 @@ package app.weehong.financeapi.services;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import app.weehong.financeapi.configs.DashboardCacheProperties;
 import app.weehong.financeapi.dtos.request.InstallmentRequestDto;
+import app.weehong.financeapi.dtos.response.InstallmentBatchResultDto;
 import app.weehong.financeapi.dtos.response.InstallmentResponseDto;
 import app.weehong.financeapi.entities.*;
-import app.weehong.financeapi.projections.installments.AllValidInstallmentsProjection;
-import app.weehong.financeapi.projections.installments.SumInstallmentByBank;
+import app.weehong.financeapi.projections.installments.InstallmentPriceByBank;
+import app.weehong.financeapi.projections.installments.InstallmentRow;
 import app.weehong.financeapi.repositories.AmountRepository;
 import app.weehong.financeapi.repositories.CardRepository;
 import app.weehong.financeapi.repositories.InstallmentRepository;
 import app.weehong.financeapi.repositories.UserRepository;
+import app.weehong.financeapi.utils.AmountWriteCoordinator;
+import app.weehong.financeapi.utils.DashboardCache;
+import app.weehong.financeapi.utils.ForecastCache;
 import app.weehong.financeapi.utils.InstallmentCalculator;
+import app.weehong.financeapi.utils.Money;
+import app.weehong.financeapi.utils.PageCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 @ExtendWith(MockitoExtension.class)
 public class InstallmentServiceImplTest {
@@ -50,6 +67,16 @@ public class InstallmentServiceImplTest {
   @Mock
   private InstallmentCalculator installmentCalculator;
 
+  @Mock
+  private AmountWriteCoordinator amountWriteCoordinator;
+
+  @Spy
+  private DashboardCache dashboardCache = new DashboardCache(new DashboardCacheProperties(),
+      new SimpleMeterRegistry());
+
+  @Mock
+  private ForecastCache forecastCache;
+
   @InjectMocks
   private InstallmentServiceImpl installmentService;
 
@@ -105,7 +132,7 @@ public class InstallmentServiceImplTest {
     mockInstallmentOne.setTotalAmount(BigDecimal.ONE);
     mockInstallmentOne.setActive(true);
     mockInstallmentOne.setLeftoverTenure(1);
-    mockInstallmentOne.setEndDate(LocalDate.now());
+    mockInstallmentOne.setEndDate(LocalDate.now().plusMonths(3));
     mockInstallmentOne.setCreatedAt(LocalDateTime.now());
     mockInstallmentOne.setUpdatedAt(LocalDateTime.now());
 
@@ -122,19 +149,22 @@ public class InstallmentServiceImplTest {
   void create_ShouldReturnInstallment_WhenSuccess() {
     when(userRepository.findById(anyString()))
         .thenReturn(Optional.of(mockUser));
-    when(cardRepository.findByUserId(anyLong(), anyString()))
+    when(cardRepository.findCachedByUserId(anyLong(), anyString()))
         .thenReturn(Optional.of(mockCard));
-    when(installmentCalculator.calculateLeftoverAmount(any(), any()))
-        .thenReturn(BigDecimal.TEN);
+    when(installmentCalculator.calculateOutstandingAmount(any(), any()))
+        .thenReturn(Money.ofCents(1000));
     when(installmentRepository.save(any(Installment.class)))
         .thenReturn(mockInstallmentOne);
+    when(amountWriteCoordinator.execute(anyLong(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
 
     InstallmentResponseDto installmentResponseDto = installmentService.create("random-string",
         installmentRequestDto);
 
     verify(userRepository, times((1))).findById("random-string");
-    verify(cardRepository, times((1))).findByUserId(1L, "random-string");
+    verify(cardRepository, times((1))).findCachedByUserId(1L, "random-string");
     verify(installmentRepository, times((1))).save(any(Installment.class));
+    verify(amountRepository, times((1))).subtractLeftoverAmountById(1L, new BigDecimal("10.00"));
 
     assertEquals(mockInstallmentOne.getId(), installmentResponseDto.getId());
     assertEquals(mockInstallmentOne.getName(), installmentResponseDto.getName());
@@ -149,29 +179,232 @@ public class InstallmentServiceImplTest {
     assertEquals(mockInstallmentOne.getCard(), mockCard);
   }
 
+  @DisplayName("Should create the valid items of a batch and report the invalid ones")
+  @Test
+  void createAll_ShouldReturnResultPerItem_WhenSomeItemsAreInvalid() {
+    InstallmentRequestDto unknownCard = new InstallmentRequestDto();
+    unknownCard.setName("Unknown card");
+    unknownCard.setCardId(99L);
+    unknownCard.setTenure(1);
+    unknownCard.setTotalAmount(BigDecimal.ONE);
+    unknownCard.setStartDate(LocalDate.now());
+
+    InstallmentRequestDto existingName = new InstallmentRequestDto();
+    existingName.setName("Existing");
+    existingName.setCardId(1L);
+    existingName.setTenure(1);
+    existingName.setTotalAmount(BigDecimal.ONE);
+    existingName.setStartDate(LocalDate.now());
+
+    when(userRepository.findById(anyString()))
+        .thenReturn(Optional.of(mockUser));
+    when(cardRepository.findAllByIdsAndUserId(any(), eq("random-string")))
+        .thenReturn(List.of(mockCard));
+    when(installmentRepository.findNamesIn(any()))
+        .thenReturn(List.of("Existing"));
+    when(installmentCalculator.calculateOutstandingAmount(any(), any()))
+        .thenReturn(Money.ofCents(100));
+    when(amountWriteCoordinator.execute(anyLong(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+    List<InstallmentBatchResultDto> results = installmentService.createAll("random-string",
+        List.of(installmentRequestDto, unknownCard, existingName));
+
+    verify(cardRepository, times((1))).findAllByIdsAndUserId(any(), eq("random-string"));
+    verify(installmentRepository, times((1))).saveAll(any());
+    verify(amountRepository, times((1))).subtractLeftoverAmountById(1L, new BigDecimal("1.00"));
+
+    assertEquals(3, results.size());
+    assertTrue(results.get(0).isSuccess());
+    assertEquals("DBS Live Fresh", results.get(0).getData().getName());
+    assertFalse(results.get(1).isSuccess());
+    assertEquals("Card ID doesn't exist.", results.get(1).getMessage());
+    assertFalse(results.get(2).isSuccess());
+    assertEquals("Name already exists.", results.get(2).getMessage());
+  }
+
+  @DisplayName("Should reject an item with a tenure of 0 without failing the rest of its amount")
+  @Test
+  void createAll_ShouldRejectOnlyTheItem_WhenTenureIsNotPositive() {
+    InstallmentRequestDto zeroTenure = new InstallmentRequestDto();
+    zeroTenure.setName("Zero tenure");
+    zeroTenure.setCardId(1L);
+    zeroTenure.setTenure(0);
+    zeroTenure.setTotalAmount(BigDecimal.ONE);
+    zeroTenure.setStartDate(LocalDate.now());
+
+    when(userRepository.findById(anyString()))
+        .thenReturn(Optional.of(mockUser));
+    when(cardRepository.findAllByIdsAndUserId(any(), eq("random-string")))
+        .thenReturn(List.of(mockCard));
+    when(installmentRepository.findNamesIn(any()))
+        .thenReturn(List.of());
+    when(installmentCalculator.calculateOutstandingAmount(any(), any()))
+        .thenReturn(Money.ofCents(100));
+    when(amountWriteCoordinator.execute(anyLong(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+    List<InstallmentBatchResultDto> results = installmentService.createAll("random-string",
+        List.of(zeroTenure, installmentRequestDto));
+
+    verify(amountWriteCoordinator, times((1))).execute(eq(1L), any());
+
+    assertFalse(results.get(0).isSuccess());
+    assertEquals("Tenure must be greater than 0.", results.get(0).getMessage());
+    assertTrue(results.get(1).isSuccess());
+  }
+
+  @DisplayName("Should create the other items of an amount one by one when one of them fails")
+  @Test
+  void createAll_ShouldReportOnlyTheFailingItem_WhenWriteOfAmountFails() {
+    InstallmentRequestDto takenName = new InstallmentRequestDto();
+    takenName.setName("Taken concurrently");
+    takenName.setCardId(1L);
+    takenName.setTenure(1);
+    takenName.setTotalAmount(BigDecimal.ONE);
+    takenName.setStartDate(LocalDate.now());
+
+    when(userRepository.findById(anyString()))
+        .thenReturn(Optional.of(mockUser));
+    when(cardRepository.findAllByIdsAndUserId(any(), eq("random-string")))
+        .thenReturn(List.of(mockCard));
+    when(installmentRepository.findNamesIn(any()))
+        .thenReturn(List.of());
+    when(installmentCalculator.calculateOutstandingAmount(any(), any()))
+        .thenReturn(Money.ofCents(100));
+    when(installmentRepository.saveAll(any()))
+        .thenAnswer(invocation -> {
+          Iterable<Installment> installments = invocation.getArgument(0);
+          for (Installment installment : installments) {
+            if (installment.getName().equals("Taken concurrently")) {
+              throw new DataIntegrityViolationException("Duplicate name");
+            }
+          }
+          return installments;
+        });
+    when(amountWriteCoordinator.execute(anyLong(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+    List<InstallmentBatchResultDto> results = installmentService.createAll("random-string",
+        List.of(installmentRequestDto, takenName));
+
+    verify(installmentRepository, times((3))).saveAll(any());
+    verify(amountRepository, times((1))).subtractLeftoverAmountById(1L, new BigDecimal("1.00"));
+
+    assertTrue(results.get(0).isSuccess());
+    assertEquals("DBS Live Fresh", results.get(0).getData().getName());
+    assertFalse(results.get(1).isSuccess());
+    assertEquals("Unable to create installment.", results.get(1).getMessage());
+  }
+
+  @DisplayName("Should save fresh installments when the batch write of an amount is retried")
+  @Test
+  void createAll_ShouldBuildFreshInstallments_WhenWriteIsRetried() {
+    List<Installment> savedInstallments = new ArrayList<>();
+
+    when(userRepository.findById(anyString()))
+        .thenReturn(Optional.of(mockUser));
+    when(cardRepository.findAllByIdsAndUserId(any(), eq("random-string")))
+        .thenReturn(List.of(mockCard));
+    when(installmentRepository.findNamesIn(any()))
+        .thenReturn(List.of());
+    when(installmentCalculator.calculateOutstandingAmount(any(), any()))
+        .thenReturn(Money.ofCents(100));
+    when(installmentRepository.saveAll(any()))
+        .thenAnswer(invocation -> {
+          Iterable<Installment> installments = invocation.getArgument(0);
+          for (Installment installment : installments) {
+            assertNull(installment.getId());
+            assertEquals(0L, installment.getVersion());
+            installment.setId((long) savedInstallments.size() + 1);
+            installment.setVersion(1L);
+            savedInstallments.add(installment);
+          }
+          return installments;
+        });
+    when(amountRepository.subtractLeftoverAmountById(1L, new BigDecimal("1.00")))
+        .thenThrow(new OptimisticLockingFailureException("Conflict"))
+        .thenReturn(1);
+    when(amountWriteCoordinator.execute(anyLong(), any()))
+        .thenAnswer(invocation -> {
+          Supplier<?> write = invocation.getArgument(1);
+          try {
+            return write.get();
+          } catch (OptimisticLockingFailureException e) {
+            return write.get();
+          }
+        });
+
+    List<InstallmentBatchResultDto> results = installmentService.createAll("random-string",
+        List.of(installmentRequestDto));
+
+    verify(installmentRepository, times((2))).saveAll(any());
+
+    assertEquals(2, savedInstallments.size());
+    assertNotSame(savedInstallments.get(0), savedInstallments.get(1));
+    assertTrue(results.get(0).isSuccess());
+    assertEquals(2L, results.get(0).getData().getId());
+  }
+
   @DisplayName("Should fetch all records based on the user ID")
   @Test
   void all_ShouldReturnAllInstallments_WhenSuccess() {
-    when(installmentRepository.findAllByUserId(anyString()))
-        .thenReturn(Collections.singletonList(mockInstallmentOne));
+    when(installmentRepository.findAllByUserId(anyString(), any(), any(), anyLong(), any()))
+        .thenReturn(Collections.singletonList(row(mockInstallmentOne)));
 
-    List<InstallmentResponseDto> installments = installmentService.all("random-string");
+    List<InstallmentResponseDto> installments = installmentService.all("random-string", null,
+        null).getItems();
 
-    verify(installmentRepository, times((1))).findAllByUserId("random-string");
+    verify(installmentRepository, times((1))).findAllByUserId(eq("random-string"), any(), any(),
+        eq(0L), any());
 
     assertFalse(installments.isEmpty());
     assertEquals(1, installments.size());
   }
 
+  @DisplayName("Should leave out the installments that are completed as of today")
+  @Test
+  void all_ShouldExcludeCompletedInstallments_WhenEndDateHasPassed() {
+    Installment completedInstallment = new Installment();
+    completedInstallment.setId(2L);
+    completedInstallment.setCard(mockCard);
+    completedInstallment.setActive(true);
+    completedInstallment.setLeftoverTenure(1);
+    completedInstallment.setEndDate(LocalDate.now().minusDays(1));
+
+    when(installmentRepository.findAllByUserId(anyString(), any(), any(), anyLong(), any()))
+        .thenReturn(List.of(row(completedInstallment), row(mockInstallmentOne)));
+
+    List<InstallmentResponseDto> installments = installmentService.all("random-string", null,
+        null).getItems();
+
+    assertEquals(1, installments.size());
+    assertEquals(mockInstallmentOne.getId(), installments.get(0).getId());
+  }
+
+  @DisplayName("Should continue after the end date and id of the cursor")
+  @Test
+  void all_ShouldReadAfterCursor_WhenCursorIsGiven() {
+    LocalDate endDate = LocalDate.of(2030, 1, 15);
+
+    when(installmentRepository.findAllByUserId(anyString(), any(), any(), anyLong(), any()))
+        .thenReturn(List.of(row(mockInstallmentOne)));
+
+    installmentService.all("random-string", PageCursor.encode(endDate, 7L), 10);
+
+    verify(installmentRepository, times((1))).findAllByUserId(eq("random-string"), any(),
+        eq(endDate), eq(7L), eq(PageCursor.pageable(10)));
+  }
+
   @DisplayName("Should fetch single record based on the record ID and user ID")
   @Test
   void getById_ShouldReturnInstallment_WhenSuccess() {
-    when(installmentRepository.findByUserId(anyLong(), anyString()))
+    when(installmentRepository.findByUserId(anyLong(), anyString(), any()))
         .thenReturn(Optional.of(mockInstallmentOne));
 
     InstallmentResponseDto installment = installmentService.getById(1L, "random-string");
 
-    verify(installmentRepository, times((1))).findByUserId(1L, "random-string");
+    verify(installmentRepository, times((1))).findByUserId(eq(1L), eq("random-string"), any());
 
     assertNotNull(installment);
     assertEquals(mockInstallmentOne.getId(), installment.getId());
@@ -180,16 +413,21 @@ public class InstallmentServiceImplTest {
   @DisplayName("Should update the record based on the record ID and user ID")
   @Test
   void update_ShouldUpdateAndReturnInstallment_WhenSuccess() {
-    when(installmentRepository.findByUserId(anyLong(), anyString()))
+    when(installmentRepository.findByUserId(anyLong(), anyString(), any()))
         .thenReturn(Optional.of(mockInstallmentOne));
     when(installmentRepository.save(any(Installment.class)))
         .thenReturn(mockInstallmentOne);
-    doNothing().when(amountRepository).updateLeftoverAmountById(anyLong(), any());
+    when(installmentCalculator.calculateOutstandingAmount(any(), any()))
+        .thenReturn(Money.ofCents(1000))
+        .thenReturn(Money.ofCents(100));
+    when(amountWriteCoordinator.execute(anyLong(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
 
     InstallmentResponseDto installment = installmentService.update(1L, "random-string", installmentRequestDto);
 
-    verify(installmentRepository, times((1))).findByUserId(1L, "random-string");
+    verify(installmentRepository, times((2))).findByUserId(eq(1L), eq("random-string"), any());
     verify(installmentRepository, times((1))).save(any(Installment.class));
+    verify(amountRepository, times((1))).subtractLeftoverAmountById(1L, new BigDecimal("-9.00"));
 
     assertNotNull(installment);
     assertEquals(mockInstallmentOne.getId(), installment.getId());
@@ -198,85 +436,92 @@ public class InstallmentServiceImplTest {
   @DisplayName("Should delete the record based on the record ID and user ID")
   @Test
   void update_ShouldDeleteAndReturnTrue_WhenSuccess() {
-    when(installmentRepository.findByUserId(1L, "random-string"))
-        .thenReturn(Optional.of(mockInstallmentOne))
-        .thenReturn(Optional.empty());
+    when(installmentRepository.findByUserId(eq(1L), eq("random-string"), any()))
+        .thenReturn(Optional.of(mockInstallmentOne));
     when(installmentRepository.findById(1L))
         .thenReturn(Optional.empty());
+    when(installmentCalculator.calculateOutstandingAmount(any(), any()))
+        .thenReturn(Money.ofCents(1000));
+    when(amountWriteCoordinator.execute(anyLong(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
 
     installmentService.delete(1L, "random-string");
 
-    verify(installmentRepository, times((1))).findByUserId(1L, "random-string");
+    verify(installmentRepository, times((2))).findByUserId(eq(1L), eq("random-string"), any());
     verify(installmentRepository, times((1))).findById(1L);
     verify(installmentRepository, times((1))).deleteById(1L);
+    verify(amountRepository, times((1))).subtractLeftoverAmountById(1L, new BigDecimal("-10.00"));
   }
 
   @DisplayName("Should sum up the total price of installment and group by bank")
   @Test
   void totalPricePerMonth_ShouldSumUpTheTotalPriceOfInstallment_WhenSuccess() {
-    SumInstallmentByBank sumInstallmentByBank = new SumInstallmentByBank() {
-      @Override
-      public BigDecimal getTotalAmount() {
-        return BigDecimal.TEN;
-      }
-
-      @Override
-      public String getName() {
-        return "DBS Bank";
-      }
-    };
-
-    when(installmentRepository.SumInstallmentGroupByBank("random-string"))
-        .thenReturn(List.of(sumInstallmentByBank));
+    when(installmentRepository.findPricePerMonthByUserId(eq("random-string"), any()))
+        .thenReturn(List.of(
+            installmentPrice("DBS Bank", BigDecimal.ONE, LocalDate.now().plusMonths(3)),
+            installmentPrice("DBS Bank", BigDecimal.TEN, LocalDate.now().plusMonths(3)),
+            installmentPrice("DBS Bank", BigDecimal.TEN, LocalDate.now().minusDays(1))));
 
     List<InstallmentResponseDto> installments = installmentService.totalPricePerMonth("random-string");
 
-    verify(installmentRepository, times((1))).SumInstallmentGroupByBank("random-string");
+    verify(installmentRepository, times((1))).findPricePerMonthByUserId(eq("random-string"),
+        any());
 
-    assertFalse(installments.isEmpty());
     assertEquals(1, installments.size());
+    assertEquals("DBS Bank", installments.get(0).getName());
+    assertEquals(BigDecimal.valueOf(11), installments.get(0).getTotalAmount());
   }
 
-  @DisplayName("Should sum up the total price of installment and group by bank")
+  @DisplayName("Should serve the total price per month from the cache until a write evicts it")
   @Test
-  void updateLeftoverTenureSchedule_ShouldCalculateTheTenure_WhenSuccess() {
-    AllValidInstallmentsProjection allValidInstallmentsProjection = new AllValidInstallmentsProjection() {
-      @Override
-      public Long getId() {
-        return 1L;
-      }
+  void totalPricePerMonth_ShouldReadCache_WhenCalledAgain() {
+    when(installmentRepository.findPricePerMonthByUserId(eq("random-string"), any()))
+        .thenReturn(List.of(
+            installmentPrice("DBS Bank", BigDecimal.ONE, LocalDate.now().plusMonths(3))));
 
-      @Override
-      public LocalDate getEndDate() {
-        return LocalDate.of(2022, 5, 1);
-      }
+    installmentService.totalPricePerMonth("random-string");
+    installmentService.totalPricePerMonth("random-string");
 
-      @Override
-      public Integer getLeftoverTenure() {
-        return 24;
-      }
+    verify(installmentRepository, times((1))).findPricePerMonthByUserId(eq("random-string"),
+        any());
 
+    dashboardCache.evictTotalPricePerMonth("random-string");
+    installmentService.totalPricePerMonth("random-string");
+
+    verify(installmentRepository, times((2))).findPricePerMonthByUserId(eq("random-string"),
+        any());
+  }
+
+  private InstallmentPriceByBank installmentPrice(String name, BigDecimal pricePerMonth,
+      LocalDate endDate) {
+    return new InstallmentPriceByBank() {
       @Override
       public String getName() {
-        return "Installment Name";
+        return name;
       }
 
       @Override
       public BigDecimal getPricePerMonth() {
-        return BigDecimal.valueOf(1000L);
+        return pricePerMonth;
       }
 
       @Override
-      public Card getCard() {
-        return mockCard;
+      public LocalDate getEndDate() {
+        return endDate;
       }
-    };
-
-    when(installmentRepository.findAllValidInstallments())
-        .thenReturn(List.of(allValidInstallmentsProjection));
 
-    installmentService.updateLeftoverTenureSchedule();
+      @Override
+      public Integer getStatementDate() {
+        return 1;
+      }
+    };
+  }
 
-    verify(installmentRepository, times((1))).findAllValidInstallments();
+  private static InstallmentRow row(Installment installment) {
+    return new InstallmentRow(installment.getId(), installment.getName(),
+        installment.getTotalAmount(), installment.getTenure(), installment.getPricePerMonth(),
+        installment.getStartDate(), installment.getEndDate(),
+        installment.getCard().getStatementDate(), installment.getCreatedAt(),
+        installment.getUpdatedAt());
   }
 }
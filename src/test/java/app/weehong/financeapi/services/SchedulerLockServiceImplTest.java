@@ -0,0 +1,126 @@
+package app.weehong.financeapi.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import app.weehong.financeapi.configs.SchedulerLockProperties;
+import app.weehong.financeapi.entities.SchedulerLock;
+import app.weehong.financeapi.repositories.SchedulerLockRepository;
+import app.weehong.financeapi.services.SchedulerLockService.Lease;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class SchedulerLockServiceImplTest {
+
+  @Mock
+  private SchedulerLockRepository schedulerLockRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private SchedulerLockServiceImpl schedulerLockService;
+
+  @BeforeEach
+  public void init() {
+    meterRegistry = new SimpleMeterRegistry();
+
+    schedulerLockService = new SchedulerLockServiceImpl(schedulerLockRepository,
+        new SchedulerLockProperties(), meterRegistry, transactionManager);
+  }
+
+  @DisplayName("Should return the lease with its fencing token when the lock is free")
+  @Test
+  void tryAcquire_ShouldReturnLease_WhenLockIsFree() {
+    SchedulerLock lock = new SchedulerLock();
+    lock.setName("installment-rollover");
+    lock.setFencingToken(5L);
+
+    when(schedulerLockRepository.existsById("installment-rollover"))
+        .thenReturn(true);
+    when(schedulerLockRepository.acquire(eq("installment-rollover"), anyString(), any(), any()))
+        .thenReturn(1);
+    when(schedulerLockRepository.findById("installment-rollover"))
+        .thenReturn(Optional.of(lock));
+
+    Optional<Lease> lease = schedulerLockService.tryAcquire("installment-rollover");
+
+    assertTrue(lease.isPresent());
+    assertEquals(5L, lease.get().fencingToken());
+    assertEquals(1.0, meterRegistry.counter("scheduler.lock.acquisitions", "lock",
+        "installment-rollover", "result", "acquired").count());
+  }
+
+  @DisplayName("Should return no lease when another replica holds the lock")
+  @Test
+  void tryAcquire_ShouldReturnEmpty_WhenLockIsHeld() {
+    when(schedulerLockRepository.existsById("installment-rollover"))
+        .thenReturn(true);
+    when(schedulerLockRepository.acquire(eq("installment-rollover"), anyString(), any(), any()))
+        .thenReturn(0);
+
+    Optional<Lease> lease = schedulerLockService.tryAcquire("installment-rollover");
+
+    verify(schedulerLockRepository, never()).findById(anyString());
+
+    assertFalse(lease.isPresent());
+    assertEquals(1.0, meterRegistry.counter("scheduler.lock.acquisitions", "lock",
+        "installment-rollover", "result", "busy").count());
+  }
+
+  @DisplayName("Should create the lock row when it does not exist yet")
+  @Test
+  void tryAcquire_ShouldCreateLock_WhenLockDoesNotExist() {
+    when(schedulerLockRepository.existsById("installment-rollover"))
+        .thenReturn(false);
+
+    schedulerLockService.tryAcquire("installment-rollover");
+
+    verify(schedulerLockRepository, times((1))).save(any(SchedulerLock.class));
+  }
+
+  @DisplayName("Should report the lease as lost when the fencing token no longer matches")
+  @Test
+  void renew_ShouldReturnFalse_WhenLeaseIsLost() {
+    Lease lease = new Lease("installment-rollover", "replica", 1L);
+
+    when(schedulerLockRepository.renew(eq("installment-rollover"), eq("replica"), anyLong(),
+        any()))
+        .thenReturn(0);
+
+    assertFalse(schedulerLockService.renew(lease));
+    assertEquals(1.0, meterRegistry.counter("scheduler.lock.renewals", "lock",
+        "installment-rollover", "result", "lost").count());
+  }
+
+  @DisplayName("Should fence out the writes once another replica holds the lock")
+  @Test
+  void fence_ShouldReturnFalse_WhenFencingTokenNoLongerMatches() {
+    Lease lease = new Lease("installment-rollover", "replica", 1L);
+
+    when(schedulerLockRepository.findHeld("installment-rollover", "replica", 1L))
+        .thenReturn(Optional.empty());
+
+    assertFalse(schedulerLockService.fence(lease));
+    assertEquals(1.0, meterRegistry.counter("scheduler.lock.fences", "lock",
+        "installment-rollover", "result", "lost").count());
+  }
+}
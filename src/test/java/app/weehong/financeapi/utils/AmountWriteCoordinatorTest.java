@@ -0,0 +1,71 @@
+package app.weehong.financeapi.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import app.weehong.financeapi.configs.AmountWriteProperties;
+import jakarta.persistence.EntityManager;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+@ExtendWith(MockitoExtension.class)
+public class AmountWriteCoordinatorTest {
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private AmountWriteCoordinator amountWriteCoordinator;
+
+  @BeforeEach
+  public void init() {
+    amountWriteCoordinator = new AmountWriteCoordinator(new AmountWriteProperties(),
+        entityManager, transactionManager);
+  }
+
+  @DisplayName("Should retry the write on a fresh persistence context after a version conflict")
+  @Test
+  void execute_ShouldRetry_WhenVersionConflicts() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    String result = amountWriteCoordinator.execute(1L, () -> {
+      if (attempts.incrementAndGet() == 1) {
+        throw new OptimisticLockingFailureException("Amount 1 was updated by another request");
+      }
+      return "written";
+    });
+
+    verify(entityManager, times((1))).clear();
+
+    assertEquals("written", result);
+    assertEquals(2, attempts.get());
+  }
+
+  @DisplayName("Should return a conflict once every attempt lost the version check")
+  @Test
+  void execute_ShouldThrowConflict_WhenAttemptsAreExhausted() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
+        amountWriteCoordinator.execute(1L, () -> {
+          attempts.incrementAndGet();
+          throw new OptimisticLockingFailureException("Amount 1 was updated by another request");
+        }));
+
+    assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+    assertEquals(3, attempts.get());
+  }
+}
@@ -0,0 +1,107 @@
+package app.weehong.financeapi.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import app.weehong.financeapi.dtos.response.ForecastResponseDto;
+import app.weehong.financeapi.dtos.response.ForecastSeriesDto;
+import app.weehong.financeapi.projections.installments.InstallmentForecastRow;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CashFlowForecastTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+  @DisplayName("Should bill each installment on its next statement dates")
+  @Test
+  void put_ShouldBillNextStatementDates_WhenInstallmentsAreActive() {
+    CashFlowForecast forecast = new CashFlowForecast(TODAY, 6);
+
+    // Statement on the 25th: billed in October, November and December.
+    forecast.put(row(1L, "100.50", 12, LocalDate.of(2027, 1, 10), 1L, 25, 1L));
+    // Statement on the 5th, already past this month: billed from November.
+    forecast.put(row(2L, "20.25", 12, LocalDate.of(2027, 2, 5), 2L, 5, 1L));
+
+    ForecastResponseDto response = forecast.toResponseDto();
+
+    assertEquals(YearMonth.of(2026, 10), response.getMonths().get(0));
+    assertEquals(YearMonth.of(2027, 3), response.getMonths().get(5));
+    assertEquals(amounts("100.50", "120.75", "120.75", "20.25", "0.00", "0.00"),
+        response.getTotal());
+    assertEquals(amounts("100.50", "100.50", "100.50", "0.00", "0.00", "0.00"),
+        response.getCards().get(0).getAmounts());
+    assertEquals(amounts("0.00", "20.25", "20.25", "20.25", "0.00", "0.00"),
+        response.getCards().get(1).getAmounts());
+    assertEquals(response.getTotal(), response.getBanks().get(0).getAmounts());
+    assertEquals(response.getTotal(), response.getAmounts().get(0).getAmounts());
+  }
+
+  @DisplayName("Should not bill the months before an installment starts")
+  @Test
+  void put_ShouldSkipMonthsBeforeStart_WhenInstallmentStartsLater() {
+    CashFlowForecast forecast = new CashFlowForecast(TODAY, 6);
+
+    forecast.put(row(1L, "10.00", 2, LocalDate.of(2027, 3, 10), 1L, 25, 1L));
+
+    assertEquals(amounts("0.00", "0.00", "0.00", "10.00", "10.00", "0.00"),
+        forecast.toResponseDto().getTotal());
+  }
+
+  @DisplayName("Should only keep the months within the horizon")
+  @Test
+  void put_ShouldClampToHorizon_WhenTenureRunsPastIt() {
+    CashFlowForecast forecast = new CashFlowForecast(TODAY, 2);
+
+    forecast.put(row(1L, "10.00", 12, LocalDate.of(2027, 1, 10), 1L, 25, 1L));
+
+    assertEquals(amounts("10.00", "10.00"), forecast.toResponseDto().getTotal());
+  }
+
+  @DisplayName("Should replace what a changed installment added and drop emptied series")
+  @Test
+  void put_ShouldReplaceInstallment_WhenPutAgain() {
+    CashFlowForecast forecast = new CashFlowForecast(TODAY, 3);
+
+    forecast.put(row(1L, "10.00", 12, LocalDate.of(2027, 1, 10), 1L, 25, 1L));
+    forecast.put(row(1L, "30.00", 12, LocalDate.of(2027, 1, 10), 2L, 25, 1L));
+
+    ForecastResponseDto response = forecast.toResponseDto();
+    List<ForecastSeriesDto> cards = response.getCards();
+
+    assertEquals(amounts("30.00", "30.00", "30.00"), response.getTotal());
+    assertEquals(1, cards.size());
+    assertEquals(2L, cards.get(0).getId());
+
+    forecast.remove(1L);
+    response = forecast.toResponseDto();
+
+    assertEquals(amounts("0.00", "0.00", "0.00"), response.getTotal());
+    assertTrue(response.getCards().isEmpty());
+    assertTrue(response.getBanks().isEmpty());
+  }
+
+  @DisplayName("Should leave out installments that are completed")
+  @Test
+  void put_ShouldIgnoreInstallment_WhenCompleted() {
+    CashFlowForecast forecast = new CashFlowForecast(TODAY, 3);
+
+    forecast.put(row(1L, "10.00", 12, LocalDate.of(2026, 9, 10), 1L, 25, 1L));
+
+    assertTrue(forecast.toResponseDto().getCards().isEmpty());
+  }
+
+  static InstallmentForecastRow row(Long id, String pricePerMonth, int tenure,
+      LocalDate endDate, Long cardId, int statementDate, Long bankId) {
+    return new InstallmentForecastRow(id, new BigDecimal(pricePerMonth), tenure, endDate,
+        cardId, "Card " + cardId, statementDate, bankId, "Bank " + bankId, 1L, "Amount");
+  }
+
+  private static List<BigDecimal> amounts(String... amounts) {
+    return List.of(amounts).stream().map(BigDecimal::new).toList();
+  }
+}
@@ -0,0 +1,64 @@
+package app.weehong.financeapi.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import app.weehong.financeapi.utils.CsvReader.MalformedCsvException;
+import java.io.StringReader;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CsvReaderTest {
+
+  @DisplayName("Should read quoted fields with commas, quotes and line breaks")
+  @Test
+  void next_ShouldReadQuotedFields_WhenFieldsAreQuoted() throws Exception {
+    CsvReader csvReader = new CsvReader(
+        new StringReader("name,amount\r\n\"Phone, 128GB\",100\n\"TV \"\"55\"\"\nLiving\",\n"));
+
+    assertEquals(List.of("name", "amount"), csvReader.next());
+    assertEquals(List.of("Phone, 128GB", "100"), csvReader.next());
+    assertEquals(List.of("TV \"55\"\nLiving", ""), csvReader.next());
+    assertEquals(3, csvReader.getRecordNumber());
+    assertNull(csvReader.next());
+  }
+
+  @DisplayName("Should read the last record when the input doesn't end with a line break")
+  @Test
+  void next_ShouldReadLastRecord_WhenInputHasNoTrailingLineBreak() throws Exception {
+    CsvReader csvReader = new CsvReader(new StringReader("a,b\nc,d"));
+
+    csvReader.next();
+
+    assertEquals(List.of("c", "d"), csvReader.next());
+    assertNull(csvReader.next());
+  }
+
+  @DisplayName("Should read records larger than its buffer")
+  @Test
+  void next_ShouldReadRecord_WhenRecordSpansBuffers() throws Exception {
+    String name = "x".repeat(20_000);
+    CsvReader csvReader = new CsvReader(new StringReader(name + ",1\n"));
+
+    assertEquals(List.of(name, "1"), csvReader.next());
+  }
+
+  @DisplayName("Should reject a quoted field that is never closed")
+  @Test
+  void next_ShouldThrowMalformedCsvException_WhenQuoteIsNotClosed() {
+    CsvReader csvReader = new CsvReader(new StringReader("\"Phone,100\n"));
+
+    assertThrows(MalformedCsvException.class, csvReader::next);
+  }
+
+  @DisplayName("Should reject a record longer than the maximum record length")
+  @Test
+  void next_ShouldThrowMalformedCsvException_WhenRecordIsTooLong() {
+    CsvReader csvReader = new CsvReader(
+        new StringReader("x".repeat(CsvReader.MAX_RECORD_LENGTH + 1)));
+
+    assertThrows(MalformedCsvException.class, csvReader::next);
+  }
+}
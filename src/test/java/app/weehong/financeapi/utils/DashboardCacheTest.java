@@ -0,0 +1,126 @@
+package app.weehong.financeapi.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import app.weehong.financeapi.configs.DashboardCacheProperties;
+import app.weehong.financeapi.dtos.response.AmountResponseDto;
+import app.weehong.financeapi.dtos.response.InstallmentResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+public class DashboardCacheTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2023, 3, 1);
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private DashboardCache dashboardCache;
+
+  private AtomicInteger loads;
+
+  @BeforeEach
+  public void init() {
+    meterRegistry = new SimpleMeterRegistry();
+    dashboardCache = new DashboardCache(new DashboardCacheProperties(), meterRegistry);
+    loads = new AtomicInteger();
+  }
+
+  @AfterEach
+  public void destroy() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @DisplayName("Should load the total price per month once per user and date")
+  @Test
+  void totalPricePerMonth_ShouldLoadOnce_WhenReadTwiceOnSameDate() {
+    dashboardCache.totalPricePerMonth("user-1", TODAY, this::loadPrices);
+    dashboardCache.totalPricePerMonth("user-1", TODAY, this::loadPrices);
+
+    assertEquals(1, loads.get());
+    assertEquals(1.0, meterRegistry.get("cache.gets")
+        .tags("cache", "dashboard.total-price-per-month", "result", "hit")
+        .functionCounter()
+        .count());
+
+    dashboardCache.totalPricePerMonth("user-1", TODAY.plusDays(1), this::loadPrices);
+
+    assertEquals(2, loads.get());
+  }
+
+  @DisplayName("Should keep the entry until the transaction of the write commits")
+  @Test
+  void evictTotalPricePerMonth_ShouldEvictAfterCommit_WhenTransactionIsActive() {
+    dashboardCache.totalPricePerMonth("user-1", TODAY, this::loadPrices);
+    TransactionSynchronizationManager.initSynchronization();
+
+    dashboardCache.evictTotalPricePerMonth("user-1");
+    dashboardCache.totalPricePerMonth("user-1", TODAY, this::loadPrices);
+
+    assertEquals(1, loads.get());
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    dashboardCache.totalPricePerMonth("user-1", TODAY, this::loadPrices);
+
+    assertEquals(2, loads.get());
+  }
+
+  @DisplayName("Should not keep a total price per month that an eviction overtook while loading")
+  @Test
+  void totalPricePerMonth_ShouldReload_WhenEvictedDuringLoad() {
+    dashboardCache.totalPricePerMonth("user-1", TODAY, () -> {
+      // A write commits while the load is reading; it must not wait on the load.
+      dashboardCache.evictTotalPricePerMonth("user-1");
+      return loadPrices();
+    });
+    dashboardCache.totalPricePerMonth("user-1", TODAY, this::loadPrices);
+
+    assertEquals(2, loads.get());
+  }
+
+  @DisplayName("Should evict the amounts right away when no transaction is active")
+  @Test
+  void evictAmounts_ShouldEvictAtOnce_WhenNoTransactionIsActive() {
+    dashboardCache.amount(1L, "user-1", this::loadAmount);
+    dashboardCache.evictAmounts(List.of(1L));
+    dashboardCache.amount(1L, "user-1", this::loadAmount);
+
+    assertEquals(2, loads.get());
+  }
+
+  @DisplayName("Should not return an amount cached for another user")
+  @Test
+  void amount_ShouldCallLoader_WhenAmountBelongsToAnotherUser() {
+    dashboardCache.amount(1L, "user-1", this::loadAmount);
+
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+        () -> dashboardCache.amount(1L, "user-2", () -> {
+          throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Record ID doesn't exist.");
+        }));
+
+    assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+  }
+
+  private List<InstallmentResponseDto> loadPrices() {
+    loads.incrementAndGet();
+    return List.of(new InstallmentResponseDto());
+  }
+
+  private AmountResponseDto loadAmount() {
+    loads.incrementAndGet();
+    return new AmountResponseDto();
+  }
+}
@@ -0,0 +1,137 @@
+package app.weehong.financeapi.utils;
+
+import static app.weehong.financeapi.utils.CashFlowForecastTest.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import app.weehong.financeapi.configs.ForecastProperties;
+import app.weehong.financeapi.dtos.response.ForecastResponseDto;
+import app.weehong.financeapi.projections.installments.InstallmentForecastRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ForecastCacheTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+  private ForecastCache forecastCache;
+
+  private AtomicInteger loads;
+
+  private List<Collection<Long>> changedLoads;
+
+  private List<InstallmentForecastRow> rows;
+
+  @BeforeEach
+  public void init() {
+    ForecastProperties properties = new ForecastProperties();
+    properties.setMonths(3);
+    forecastCache = new ForecastCache(properties, new SimpleMeterRegistry());
+    loads = new AtomicInteger();
+    changedLoads = new ArrayList<>();
+    rows = new ArrayList<>(List.of(
+        row(1L, "10.00", 12, LocalDate.of(2027, 1, 10), 1L, 25, 1L),
+        row(2L, "5.00", 12, LocalDate.of(2027, 1, 10), 1L, 25, 1L)));
+  }
+
+  @AfterEach
+  public void destroy() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @DisplayName("Should reload only the changed installments into the cached forecast")
+  @Test
+  void forecast_ShouldReloadChangedInstallments_WhenInstallmentsChanged() {
+    assertEquals(new BigDecimal("15.00"), forecast(TODAY).getTotal().get(0));
+
+    rows.set(0, row(1L, "20.00", 12, LocalDate.of(2027, 1, 10), 1L, 25, 1L));
+    rows.remove(1);
+    forecastCache.installmentsChanged("user-1", List.of(1L, 2L));
+
+    assertEquals(new BigDecimal("20.00"), forecast(TODAY).getTotal().get(0));
+    assertEquals(1, loads.get());
+    assertEquals(List.of(Set.of(1L, 2L)), changedLoads);
+
+    forecast(TODAY);
+
+    assertEquals(1, changedLoads.size());
+  }
+
+  @DisplayName("Should reload the installments of a write that committed during the build")
+  @Test
+  void forecast_ShouldReloadChangedInstallments_WhenChangedDuringBuild() {
+    forecastCache.forecast("user-1", TODAY, () -> {
+      loads.incrementAndGet();
+      List<InstallmentForecastRow> loaded = List.copyOf(rows);
+      // A write commits after the build read the installments; it must not wait on the build.
+      rows.set(0, row(1L, "20.00", 12, LocalDate.of(2027, 1, 10), 1L, 25, 1L));
+      forecastCache.installmentsChanged("user-1", List.of(1L));
+      return loaded;
+    }, ids -> List.of());
+
+    assertEquals(new BigDecimal("25.00"), forecast(TODAY).getTotal().get(0));
+    assertEquals(1, loads.get());
+    assertEquals(List.of(Set.of(1L)), changedLoads);
+  }
+
+  @DisplayName("Should only mark the installments as changed once the write has committed")
+  @Test
+  void installmentsChanged_ShouldWaitForCommit_WhenTransactionIsActive() {
+    forecast(TODAY);
+    TransactionSynchronizationManager.initSynchronization();
+
+    forecastCache.installmentsChanged("user-1", List.of(1L));
+    forecast(TODAY);
+
+    assertEquals(0, changedLoads.size());
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    forecast(TODAY);
+
+    assertEquals(1, changedLoads.size());
+  }
+
+  @DisplayName("Should rebuild the forecast when it is evicted or read on another date")
+  @Test
+  void forecast_ShouldRebuild_WhenEvictedOrDateChanged() {
+    forecast(TODAY);
+    forecast(TODAY);
+
+    assertEquals(1, loads.get());
+
+    forecastCache.evict("user-1");
+    forecast(TODAY);
+
+    assertEquals(2, loads.get());
+
+    forecast(TODAY.plusDays(1));
+
+    assertEquals(3, loads.get());
+  }
+
+  private ForecastResponseDto forecast(LocalDate date) {
+    return forecastCache.forecast("user-1", date, () -> {
+      loads.incrementAndGet();
+      return List.copyOf(rows);
+    }, ids -> {
+      changedLoads.add(Set.copyOf(ids));
+      return rows.stream()
+          .filter(row -> ids.contains(row.id()))
+          .toList();
+    });
+  }
+}
@@ -0,0 +1,58 @@
+package app.weehong.financeapi.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MoneyTest {
+
+  @DisplayName("Should divide to the cent the same way as BigDecimal with HALF_UP")
+  @Test
+  void dividedBy_ShouldMatchBigDecimal_WhenRounding() {
+    for (long cents = -10_000; cents <= 10_000; cents += 7) {
+      for (long divisor = 1; divisor <= 60; divisor++) {
+        BigDecimal amount = BigDecimal.valueOf(cents, 2);
+
+        assertEquals(amount.divide(BigDecimal.valueOf(divisor), 2, RoundingMode.HALF_UP),
+            Money.ofCents(cents).dividedBy(divisor).toBigDecimal(), amount + " / " + divisor);
+        assertEquals(amount.divide(BigDecimal.valueOf(-divisor), 2, RoundingMode.HALF_UP),
+            Money.ofCents(cents).dividedBy(-divisor).toBigDecimal(), amount + " / -" + divisor);
+      }
+    }
+  }
+
+  @DisplayName("Should round half away from zero when the remainder is exactly half")
+  @Test
+  void dividedBy_ShouldRoundHalfAwayFromZero_WhenRemainderIsHalf() {
+    assertEquals(new BigDecimal("0.03"),
+        Money.of(new BigDecimal("0.05")).dividedBy(2).toBigDecimal());
+    assertEquals(new BigDecimal("-0.03"),
+        Money.of(new BigDecimal("-0.05")).dividedBy(2).toBigDecimal());
+    assertEquals(new BigDecimal("33.33"),
+        Money.of(new BigDecimal("100")).dividedBy(3).toBigDecimal());
+  }
+
+  @DisplayName("Should multiply, add and subtract exactly")
+  @Test
+  void arithmetic_ShouldBeExact_WhenAmountsHaveCents() {
+    Money price = Money.of(new BigDecimal("33.33"));
+
+    assertEquals(new BigDecimal("399.96"), price.times(12).toBigDecimal());
+    assertEquals(new BigDecimal("66.66"), price.plus(price).toBigDecimal());
+    assertEquals(new BigDecimal("-33.33"), Money.ZERO.minus(price).toBigDecimal());
+    assertEquals(price.negate(), Money.ZERO.minus(price));
+  }
+
+  @DisplayName("Should reject amounts with more than two decimal places or that overflow")
+  @Test
+  void of_ShouldThrow_WhenAmountIsNotInCents() {
+    assertEquals(Money.ofCents(1050), Money.of(new BigDecimal("10.5")));
+    assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("10.005")));
+    assertThrows(ArithmeticException.class,
+        () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+  }
+}
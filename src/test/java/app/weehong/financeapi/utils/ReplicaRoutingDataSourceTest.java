@@ -0,0 +1,128 @@
+package app.weehong.financeapi.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import app.weehong.financeapi.configs.ReplicaDataSourceProperties;
+import app.weehong.financeapi.repositories.UserRepository;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ReplicaRoutingDataSourceTest {
+
+  private ReadYourWrites readYourWrites;
+
+  private JdbcTemplate jdbcTemplate;
+
+  private DataSourceTransactionManager transactionManager;
+
+  private TransactionTemplate transactionTemplate;
+
+  private TransactionTemplate readOnlyTransactionTemplate;
+
+  @BeforeEach
+  public void init() {
+    readYourWrites = new ReadYourWrites(new ReplicaDataSourceProperties());
+
+    ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(
+        database("primary"), database("replica"), readYourWrites);
+    routingDataSource.afterPropertiesSet();
+    DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    transactionManager = new DataSourceTransactionManager(dataSource);
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    readOnlyTransactionTemplate.setReadOnly(true);
+  }
+
+  @AfterEach
+  public void destroy() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @DisplayName("Should read from the replica in read-only transactions of a user")
+  @Test
+  void determineCurrentLookupKey_ShouldRouteToReplica_WhenTransactionIsReadOnly() {
+    signIn("user-1");
+
+    assertEquals("replica", readOnlyTransactionTemplate.execute(status -> node()));
+    assertEquals("primary", transactionTemplate.execute(status -> node()));
+  }
+
+  @DisplayName("Should read from the primary while the user writes and within the window after")
+  @Test
+  void determineCurrentLookupKey_ShouldRouteToPrimary_WhenUserHasJustWritten() {
+    signIn("user-1");
+
+    readYourWrites.writeStarted("user-1");
+    assertEquals("primary", readOnlyTransactionTemplate.execute(status -> node()));
+
+    readYourWrites.writeFinished("user-1");
+    assertEquals("primary", readOnlyTransactionTemplate.execute(status -> node()));
+
+    signIn("user-2");
+    assertEquals("replica", readOnlyTransactionTemplate.execute(status -> node()));
+  }
+
+  @DisplayName("Should read the data version of the ETag from the same database as the body")
+  @Test
+  void determineCurrentLookupKey_ShouldRouteDataVersionWithBody_WhenUserReads() throws Exception {
+    TransactionAttribute dataVersionAttribute = new AnnotationTransactionAttributeSource(false)
+        .getTransactionAttribute(
+            UserRepository.class.getMethod("findDataVersionById", String.class),
+            UserRepository.class);
+    TransactionTemplate dataVersionTransactionTemplate = new TransactionTemplate(
+        transactionManager, dataVersionAttribute);
+    signIn("user-1");
+
+    assertEquals("replica", dataVersionTransactionTemplate.execute(status -> node()));
+    assertEquals("replica", readOnlyTransactionTemplate.execute(status -> node()));
+  }
+
+  @DisplayName("Should read from the primary when asked to, even in a read-only transaction")
+  @Test
+  void determineCurrentLookupKey_ShouldRouteToPrimary_WhenReadingFromPrimary() {
+    signIn("user-1");
+
+    assertEquals("primary", ReplicaRoutingDataSource.readFromPrimary(() ->
+        readOnlyTransactionTemplate.execute(status -> node())));
+    assertEquals("replica", readOnlyTransactionTemplate.execute(status -> node()));
+  }
+
+  @DisplayName("Should read from the primary when no user is signed in")
+  @Test
+  void determineCurrentLookupKey_ShouldRouteToPrimary_WhenNoUser() {
+    assertEquals("primary", readOnlyTransactionTemplate.execute(status -> node()));
+  }
+
+  private String node() {
+    return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+  }
+
+  private static void signIn(String userId) {
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(userId,
+        null));
+  }
+
+  private static DataSource database(String name) {
+    DataSource dataSource = new DriverManagerDataSource(
+        "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16))");
+    jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+    return dataSource;
+  }
+}